@@ -0,0 +1,188 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.benchmarks;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginManager;
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.api.checks.Check;
+import top.cmarco.safechat.chat.check.address.AddressWhitelist;
+import top.cmarco.safechat.chat.check.blacklist.CompiledBlacklist;
+import top.cmarco.safechat.chat.check.types.AddressCheck;
+import top.cmarco.safechat.chat.check.types.CapsCheck;
+import top.cmarco.safechat.chat.check.types.FloodCheck;
+import top.cmarco.safechat.chat.check.types.RepetitionCheck;
+import top.cmarco.safechat.chat.check.types.WordsBlacklistCheck;
+import top.cmarco.safechat.chat.state.OnlineNames;
+import top.cmarco.safechat.chat.state.PlayerStateStore;
+import top.cmarco.safechat.config.settings.AddressSettings;
+import top.cmarco.safechat.config.settings.BlacklistSettings;
+import top.cmarco.safechat.config.settings.CapsSettings;
+import top.cmarco.safechat.config.settings.CheckSettings;
+import top.cmarco.safechat.config.settings.FloodSettings;
+import top.cmarco.safechat.config.settings.LogSettings;
+import top.cmarco.safechat.config.settings.ParallelChecksSettings;
+import top.cmarco.safechat.config.settings.PluginSettings;
+import top.cmarco.safechat.config.settings.PunishmentSettings;
+import top.cmarco.safechat.config.settings.RepetitionSettings;
+import top.cmarco.safechat.config.settings.SafeChatSettings;
+import top.cmarco.safechat.config.settings.SettingsProvider;
+import top.cmarco.safechat.config.settings.StatisticsSettings;
+import top.cmarco.safechat.logging.OverflowPolicy;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Stub players, settings and checks to run the checks outside of a server.
+ */
+public final class BenchmarkFixtures {
+
+    public static final int PLAYERS = 64;
+
+    private BenchmarkFixtures() {
+        throw new UnsupportedOperationException("Cannot instantiate utility class.");
+    }
+
+    /**
+     * Create a player that only answers the calls made by the checks.
+     * No permission is granted, so no check is bypassed.
+     *
+     * @param name The player name.
+     * @return The player.
+     */
+    @NotNull
+    public static Player stubPlayer(@NotNull String name) {
+        final UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+        return (Player) Proxy.newProxyInstance(BenchmarkFixtures.class.getClassLoader(), new Class<?>[]{Player.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getUniqueId":
+                    return uuid;
+                case "getName":
+                case "getDisplayName":
+                    return name;
+                case "hasPermission":
+                case "isOp":
+                    return false;
+                case "getLocale":
+                    return "en_us";
+                case "hashCode":
+                    return uuid.hashCode();
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "StubPlayer{" + name + '}';
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    /**
+     * Create a plugin manager that fires events to no listener.
+     *
+     * @return The plugin manager.
+     */
+    @NotNull
+    public static PluginManager stubPluginManager() {
+        return (PluginManager) Proxy.newProxyInstance(BenchmarkFixtures.class.getClassLoader(), new Class<?>[]{PluginManager.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "callEvent":
+                    return null;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "StubPluginManager";
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    @NotNull
+    public static Player[] stubPlayers() {
+        final Player[] players = new Player[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = stubPlayer("Player" + i);
+        }
+        return players;
+    }
+
+    @NotNull
+    private static CheckSettings check() {
+        return new CheckSettings(true, false, false, 5L, "kick {PLAYER}", Collections.emptyList());
+    }
+
+    /**
+     * Build the settings used by the benchmarks, close to the default configuration.
+     *
+     * @return The settings.
+     */
+    @NotNull
+    public static SafeChatSettings settings() {
+        final List<String> words = ChatCorpus.blacklistedWords();
+        final Logger logger = Logger.getLogger("SafeChat-benchmarks");
+
+        return new SafeChatSettings(
+                new BlacklistSettings(check(), true, true, false, 0.85D, false, words, CompiledBlacklist.compile(words, logger)),
+                new AddressSettings(check(), false, List.of("spigotmc.org", "github.com"), List.of("127.0.0.1"),
+                        AddressWhitelist.compile(List.of("spigotmc.org", "github.com"), List.of("127.0.0.1"))),
+                new FloodSettings(check(), 1500L, 0, 10_000L, 0, 1_000L),
+                new RepetitionSettings(check(), false, 0.70D, 5, 300_000L, 12, 0, 30_000L, 10),
+                new CapsSettings(check(), SafeChatSettings.DEFAULT_CAPS_LIMIT, 0.7D, 8, false),
+                new PluginSettings(PluginSettings.DEFAULT_STATE_IDLE_EXPIRATION,
+                        PluginSettings.DEFAULT_BYPASS_REFRESH_INTERVAL,
+                        new LogSettings(4096, OverflowPolicy.DROP, 0L, 0L, false),
+                        new ParallelChecksSettings(false, 0),
+                        new StatisticsSettings(false, 0L),
+                        new PunishmentSettings(2_000_000L)));
+    }
+
+    @NotNull
+    public static SettingsProvider settingsProvider() {
+        final SafeChatSettings settings = settings();
+        return new SettingsProvider(() -> settings);
+    }
+
+    /**
+     * Create the built-in checks, ordered like the ChecksContainer orders them.
+     *
+     * @param provider   The settings.
+     * @param stateStore The per-player chat state.
+     * @return The checks.
+     */
+    @NotNull
+    public static List<Check> builtInChecks(@NotNull SettingsProvider provider, @NotNull PlayerStateStore stateStore) {
+        final List<Check> checks = new ArrayList<>();
+        checks.add(new AddressCheck(provider));
+        checks.add(new FloodCheck(provider, stateStore));
+        checks.add(new RepetitionCheck(provider, stateStore));
+        checks.add(new WordsBlacklistCheck(provider));
+        checks.add(new CapsCheck(provider, new OnlineNames()));
+        checks.sort(Comparator.comparing(check -> check.getCheckPriority().ordinal()));
+        return checks;
+    }
+}
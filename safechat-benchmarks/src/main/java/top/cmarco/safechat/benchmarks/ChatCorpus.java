@@ -0,0 +1,126 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic chat messages, generated from a fixed seed so every run
+ * measures the same corpus.
+ */
+public final class ChatCorpus {
+
+    public static final long SEED = 0x5AFEC4A7L;
+    public static final int BLACKLIST_SIZE = 300;
+
+    private static final String[] VOCABULARY = {
+            "hello", "anyone", "want", "to", "trade", "diamonds", "for", "iron", "where", "is", "the", "spawn",
+            "lol", "gg", "nice", "build", "can", "i", "join", "your", "town", "how", "do", "you", "get", "there",
+            "thanks", "sure", "wait", "brb", "afk", "who", "has", "some", "food", "please", "come", "here", "now",
+            "night", "day", "village", "nether", "portal", "enchant", "sword", "pickaxe", "farm", "redstone", "mob"
+    };
+    private static final String[] ADDRESSES = {
+            "join play.example-craft.net", "best server 192.168.10.4 come", "www.free-ranks.com",
+            "go to mc[.]cheap-host[.]org now", "spigotmc.org has the plugin", "ip 10,0,0,12 !!"
+    };
+
+    private ChatCorpus() {
+        throw new UnsupportedOperationException("Cannot instantiate utility class.");
+    }
+
+    /**
+     * @return A blacklist of pseudo-words, as big as a typical configuration.
+     */
+    @NotNull
+    public static List<String> blacklistedWords() {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        final List<String> words = new ArrayList<>(BLACKLIST_SIZE);
+        for (int i = 0; i < BLACKLIST_SIZE; i++) {
+            words.add(randomWord(random, 4 + random.nextInt(6)));
+        }
+        return words;
+    }
+
+    @NotNull
+    private static String randomWord(@NotNull SplittableRandom random, int length) {
+        final StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+
+    @NotNull
+    private static String sentence(@NotNull SplittableRandom random) {
+        final int words = 2 + random.nextInt(10);
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Generate a corpus. About 60% of the messages are clean chat, the rest
+     * is shouting, advertising, blacklisted words (plain and obfuscated)
+     * and repeated messages.
+     *
+     * @param size The amount of messages.
+     * @return The messages.
+     */
+    @NotNull
+    public static String[] messages(int size) {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        final List<String> blacklist = blacklistedWords();
+        final String[] messages = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            final int kind = random.nextInt(10);
+            final String message;
+            switch (kind) {
+                case 6:
+                    message = sentence(random).toUpperCase(Locale.ROOT);
+                    break;
+                case 7:
+                    message = sentence(random) + ' ' + ADDRESSES[random.nextInt(ADDRESSES.length)];
+                    break;
+                case 8:
+                    final String word = blacklist.get(random.nextInt(blacklist.size()));
+                    message = sentence(random) + ' ' + (random.nextBoolean() ? word : String.join(".", word.split("")));
+                    break;
+                case 9:
+                    message = i >= BenchmarkFixtures.PLAYERS ? messages[i - BenchmarkFixtures.PLAYERS] : sentence(random);
+                    break;
+                default:
+                    message = sentence(random);
+                    break;
+            }
+            messages[i] = message;
+        }
+        return messages;
+    }
+}
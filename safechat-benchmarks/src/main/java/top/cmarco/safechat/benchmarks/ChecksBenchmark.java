@@ -0,0 +1,126 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.benchmarks;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import top.cmarco.safechat.api.checks.ChatData;
+import top.cmarco.safechat.api.checks.Check;
+import top.cmarco.safechat.chat.check.types.AddressCheck;
+import top.cmarco.safechat.chat.check.types.CapsCheck;
+import top.cmarco.safechat.chat.check.types.FloodCheck;
+import top.cmarco.safechat.chat.check.types.RepetitionCheck;
+import top.cmarco.safechat.chat.check.types.WordsBlacklistCheck;
+import top.cmarco.safechat.chat.state.OnlineNames;
+import top.cmarco.safechat.chat.state.PlayerStateStore;
+import top.cmarco.safechat.config.settings.SettingsProvider;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of every built-in check, one message at a time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecksBenchmark {
+
+    /**
+     * Milliseconds between two messages of the whole server,
+     * so that a player sends a message every {@code PLAYERS * delay} ms.
+     */
+    private static final long MESSAGE_DELAY = 20L;
+
+    @Param({"4096"})
+    public int corpusSize;
+
+    private String[] messages;
+    private Player[] players;
+    private AddressCheck addressCheck;
+    private CapsCheck capsCheck;
+    private FloodCheck floodCheck;
+    private RepetitionCheck repetitionCheck;
+    private WordsBlacklistCheck wordsBlacklistCheck;
+    private int index;
+    private long clock;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        messages = ChatCorpus.messages(corpusSize);
+        players = BenchmarkFixtures.stubPlayers();
+
+        final SettingsProvider provider = BenchmarkFixtures.settingsProvider();
+        final PlayerStateStore stateStore = new PlayerStateStore();
+        addressCheck = new AddressCheck(provider);
+        capsCheck = new CapsCheck(provider, new OnlineNames());
+        floodCheck = new FloodCheck(provider, stateStore);
+        repetitionCheck = new RepetitionCheck(provider, stateStore);
+        wordsBlacklistCheck = new WordsBlacklistCheck(provider);
+    }
+
+    private ChatData next() {
+        final int i = index;
+        index = i + 1 == messages.length ? 0 : i + 1;
+        clock += MESSAGE_DELAY;
+        return new ChatData(players[i % players.length], messages[i], clock);
+    }
+
+    private boolean run(Check check) {
+        return check.check(next());
+    }
+
+    @Benchmark
+    public boolean address() {
+        return run(addressCheck);
+    }
+
+    @Benchmark
+    public boolean caps() {
+        return run(capsCheck);
+    }
+
+    @Benchmark
+    public boolean flood() {
+        return run(floodCheck);
+    }
+
+    @Benchmark
+    public boolean repetition() {
+        return run(repetitionCheck);
+    }
+
+    @Benchmark
+    public boolean wordsBlacklist() {
+        return run(wordsBlacklistCheck);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.benchmarks;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import top.cmarco.safechat.api.checks.Check;
+import top.cmarco.safechat.chat.ChatPipeline;
+import top.cmarco.safechat.chat.check.ParallelCheckEvaluator;
+import top.cmarco.safechat.chat.state.BypassCache;
+import top.cmarco.safechat.chat.state.PlayerStateStore;
+import top.cmarco.safechat.config.settings.ParallelChecksSettings;
+import top.cmarco.safechat.config.settings.SettingsProvider;
+import top.cmarco.safechat.statistics.StatisticsRegistry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The whole chat pipeline, as run by the ChatListener for every message:
+ * the {@link ChatPipeline} with the built-in checks, statistics enabled and
+ * optionally the parallel evaluator.
+ * Violation logging, flag persistence and punishments are not part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+
+    private static final long MESSAGE_DELAY = 20L;
+
+    @Param({"4096"})
+    public int corpusSize;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private String[] messages;
+    private Player[] players;
+    private ParallelCheckEvaluator parallelEvaluator;
+    private ChatPipeline pipeline;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        messages = ChatCorpus.messages(corpusSize);
+        players = BenchmarkFixtures.stubPlayers();
+
+        final SettingsProvider provider = BenchmarkFixtures.settingsProvider();
+        final List<Check> builtIn = BenchmarkFixtures.builtInChecks(provider, new PlayerStateStore());
+        final Check[] checks = builtIn.toArray(new Check[0]);
+        final BypassCache bypassCache = new BypassCache(() -> checks);
+        bypassCache.refreshAll(Arrays.asList(players));
+
+        final StatisticsRegistry statistics = new StatisticsRegistry();
+        parallelEvaluator = parallel ? new ParallelCheckEvaluator(new ParallelChecksSettings(true, 0), statistics) : null;
+        pipeline = new ChatPipeline(() -> checks, bypassCache, statistics, () -> parallelEvaluator,
+                BenchmarkFixtures.stubPluginManager(), record -> {
+        }, (check, data) -> {
+        }, () -> clock.getAndAdd(MESSAGE_DELAY));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (parallelEvaluator != null) {
+            parallelEvaluator.shutdown();
+        }
+    }
+
+    private String next() {
+        final int i = (int) (sequence.getAndIncrement() % messages.length);
+        return pipeline.process(players[i % players.length], messages[i]);
+    }
+
+    @Benchmark
+    public String singleThread() {
+        return next();
+    }
+
+    /**
+     * Several chat threads at once, like a busy server with async chat.
+     */
+    @Benchmark
+    @Threads(4)
+    public String concurrent() {
+        return next();
+    }
+}
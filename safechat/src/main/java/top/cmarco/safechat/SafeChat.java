@@ -25,21 +25,35 @@ import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import studio.thevipershow.vtc.PluginConfigurationsData;
 import studio.thevipershow.vtc.PluginsConfigurationsManager;
 import top.cmarco.safechat.chat.check.types.*;
-import top.cmarco.safechat.config.blacklist.BlacklistConfig;
 import top.cmarco.safechat.api.checks.ChecksContainer;
+import top.cmarco.safechat.chat.check.ParallelCheckEvaluator;
 import top.cmarco.safechat.chat.listeners.ChatListener;
+import top.cmarco.safechat.chat.listeners.PlayerConnectionListener;
+import top.cmarco.safechat.chat.punishment.PunishmentQueue;
+import top.cmarco.safechat.chat.state.BypassCache;
+import top.cmarco.safechat.chat.state.OnlineNames;
+import top.cmarco.safechat.chat.state.PlayerStateStore;
 import top.cmarco.safechat.commands.SafeChatCommand;
 import top.cmarco.safechat.config.Configurations;
-import top.cmarco.safechat.config.address.AddressConfig;
-import top.cmarco.safechat.config.checks.CheckConfig;
 import top.cmarco.safechat.config.localization.Localization;
-import top.cmarco.safechat.config.messages.MessagesConfig;
+import top.cmarco.safechat.config.metrics.MetricsConfig;
+import top.cmarco.safechat.config.settings.ExporterSettings;
+import top.cmarco.safechat.config.settings.ParallelChecksSettings;
+import top.cmarco.safechat.config.settings.SettingsProvider;
 import top.cmarco.safechat.debug.Debugger;
+import top.cmarco.safechat.logging.ViolationLogWriter;
+import top.cmarco.safechat.persistence.FlagWriteBehindQueue;
+import top.cmarco.safechat.persistence.PersistenceExecutor;
 import top.cmarco.safechat.persistence.SafeChatHibernate;
+import top.cmarco.safechat.statistics.PrometheusExporter;
+import top.cmarco.safechat.statistics.StatisticsRegistry;
+import top.cmarco.safechat.statistics.StatisticsReport;
 
+import java.io.IOException;
 import java.util.Objects;
 
 @SuppressWarnings("unused")
@@ -47,6 +61,12 @@ public final class SafeChat extends JavaPlugin {
 
     public static final short PLUGIN_ID = 9876;
     private static final String VAULT_NAME = "Vault";
+    private static final long STATE_EVICTION_PERIOD = 1200L;
+    private static final long VIOLATION_LOG_CLOSE_TIMEOUT = 5000L;
+    private static final long BYPASS_REFRESH_CHECK_PERIOD = 20L;
+    private static final long STATISTICS_DUMP_CHECK_PERIOD = 20L;
+    private static final String STATISTICS_FILE = "statistics.txt";
+    private static final String FAILED_CHECKS_CHART = "failed_checks";
     public static Localization localization;
 
     private PluginsConfigurationsManager configManager;
@@ -58,6 +78,18 @@ public final class SafeChat extends JavaPlugin {
     private Metrics metrics;
     private SafeChatHibernate safeChatHibernate;
     private Debugger debugger;
+    private SettingsProvider settingsProvider;
+    private PlayerStateStore playerStateStore;
+    private final OnlineNames onlineNames = new OnlineNames();
+    private volatile ViolationLogWriter violationLogWriter;
+    private BypassCache bypassCache;
+    private PunishmentQueue punishmentQueue;
+    private volatile ParallelCheckEvaluator parallelCheckEvaluator;
+    private final StatisticsRegistry statistics = new StatisticsRegistry();
+    private long lastStatisticsDump;
+    private PrometheusExporter prometheusExporter;
+    private long lastBypassRefresh;
+    private PlayerConnectionListener playerConnectionListener;
 
     private SafeChatCommand safechatCommand;
 
@@ -67,6 +99,7 @@ public final class SafeChat extends JavaPlugin {
 
     private void setupMetrics() {
         metrics = new Metrics(this, PLUGIN_ID);
+        metrics.addCustomChart(new Metrics.SingleLineChart(FAILED_CHECKS_CHART, statistics::takeUnreportedFailures));
     }
 
     private boolean setupEconomy() {
@@ -93,20 +126,86 @@ public final class SafeChat extends JavaPlugin {
         localization.loadTranslation(Objects.requireNonNull(pluginData.getConfig(Configurations.MESSAGES)));
     }
 
-    @SuppressWarnings("unchecked")
+    private void setupSettings() {
+        settingsProvider = new SettingsProvider(this);
+    }
+
+    private void setupStatistics() {
+        statistics.setEnabled(settingsProvider.getSettings().plugin().statistics().enabled());
+        lastStatisticsDump = System.currentTimeMillis();
+
+        getServer().getScheduler().runTaskTimerAsynchronously(this, () -> {
+            long interval = settingsProvider.getSettings().plugin().statistics().dumpInterval() * 1000L;
+            long now = System.currentTimeMillis();
+            if (statistics.isEnabled() && interval > 0L && now - lastStatisticsDump >= interval) {
+                lastStatisticsDump = now;
+                dumpStatistics();
+            }
+        }, STATISTICS_DUMP_CHECK_PERIOD, STATISTICS_DUMP_CHECK_PERIOD);
+    }
+
+    private void dumpStatistics() {
+        try {
+            StatisticsReport.dump(statistics, getDataFolder().toPath().resolve(STATISTICS_FILE));
+        } catch (IOException e) {
+            getLogger().warning("Could not write the statistics: " + e.getLocalizedMessage());
+        }
+    }
+
+    private void setupMetricsExporter() {
+        MetricsConfig metricsConfig = Objects.requireNonNull(configData.getConfig(Configurations.METRICS_SETTINGS));
+        ExporterSettings settings = metricsConfig.getExporterSettings();
+        if (!settings.enabled()) {
+            return;
+        }
+
+        PrometheusExporter exporter = new PrometheusExporter(statistics, settings);
+        FlagWriteBehindQueue flagQueue = safeChatHibernate.getFlagQueue();
+        PersistenceExecutor persistenceExecutor = safeChatHibernate.getPersistenceExecutor();
+        if (flagQueue != null) {
+            exporter.sample("safechat_flag_queue_depth", "Flag increments waiting to be written to the database.", false, flagQueue::size);
+        }
+        if (persistenceExecutor != null) {
+            exporter.sample("safechat_persistence_pending", "Database operations waiting for a persistence thread.", false, persistenceExecutor::getPendingCount);
+            exporter.sample("safechat_persistence_rejected_total", "Database operations rejected because the persistence queue was full.", true, persistenceExecutor::getRejectedCount);
+        }
+        exporter.sample("safechat_violation_log_backlog", "Violations waiting to be written to the log file.", false, () -> violationLogWriter.getPendingCount());
+        exporter.sample("safechat_violation_log_dropped_total", "Violations dropped because the log buffer was full.", true, () -> violationLogWriter.getDroppedCount());
+        exporter.sample("safechat_violation_log_written_total", "Violations written to the log file.", true, () -> violationLogWriter.getWrittenCount());
+        exporter.sample("safechat_punishment_queue_depth", "Punishment commands waiting for the main thread.", false, () -> punishmentQueue.size());
+        exporter.sample("safechat_online_players", "Players online.", false, () -> getServer().getOnlinePlayers().size());
+
+        try {
+            exporter.start();
+            prometheusExporter = exporter;
+        } catch (IOException e) {
+            getLogger().warning("Could not start the metrics exporter on " + settings.bindAddress() + ":" + settings.port() + ": " + e.getLocalizedMessage());
+        }
+    }
+
+    private void setupViolationLog() {
+        violationLogWriter = new ViolationLogWriter(getDataFolder().toPath().resolve("logs"),
+                settingsProvider.getSettings().plugin().logging(), getLogger());
+        violationLogWriter.start();
+    }
+
+    private void setupPlayerStateStore() {
+        playerStateStore = new PlayerStateStore();
+        onlineNames.addAll(getServer().getOnlinePlayers());
+        getServer().getScheduler().runTaskTimerAsynchronously(this, () -> {
+            long idleExpiration = settingsProvider.getSettings().plugin().stateIdleExpiration();
+            playerStateStore.evictIdle(idleExpiration * 1000L);
+        }, STATE_EVICTION_PERIOD, STATE_EVICTION_PERIOD);
+    }
+
     private void setupChecksContainer() {
         checksContainer = ChecksContainer.getInstance(this);
-        PluginConfigurationsData<SafeChat> pluginConfigurationsData = Objects.requireNonNull(getConfigData());
-        MessagesConfig messagesConfig = Objects.requireNonNull(pluginConfigurationsData.getConfig(Configurations.MESSAGES));
-        CheckConfig checkConfig = Objects.requireNonNull(pluginConfigurationsData.getConfig(Configurations.CHECKS_SETTINGS));
-        AddressConfig addressConfig = Objects.requireNonNull(pluginConfigurationsData.getConfig(Configurations.ADDRESS));
-        BlacklistConfig blacklistConfig = Objects.requireNonNull(pluginConfigurationsData.getConfig(Configurations.BLACKLIST));
-
-        AddressCheck addressCheck = new AddressCheck(addressConfig, checkConfig, messagesConfig);
-        FloodCheck floodCheck = new FloodCheck(checkConfig, messagesConfig);
-        RepetitionCheck repetitionCheck = new RepetitionCheck(checkConfig, messagesConfig);
-        WordsBlacklistCheck wordsBlacklistCheck = new WordsBlacklistCheck(blacklistConfig, checkConfig, messagesConfig);
-        CapsCheck capsCheck = new CapsCheck(checkConfig, messagesConfig);
+
+        AddressCheck addressCheck = new AddressCheck(settingsProvider);
+        FloodCheck floodCheck = new FloodCheck(settingsProvider, playerStateStore);
+        RepetitionCheck repetitionCheck = new RepetitionCheck(settingsProvider, playerStateStore);
+        WordsBlacklistCheck wordsBlacklistCheck = new WordsBlacklistCheck(settingsProvider);
+        CapsCheck capsCheck = new CapsCheck(settingsProvider, onlineNames);
 
         checksContainer.register(addressCheck);
         checksContainer.register(floodCheck);
@@ -115,10 +214,75 @@ public final class SafeChat extends JavaPlugin {
         checksContainer.register(capsCheck);
     }
 
+    private void setupBypassCache() {
+        bypassCache = new BypassCache(checksContainer::getActiveChecksSnapshot);
+        bypassCache.refreshAll(getServer().getOnlinePlayers());
+        lastBypassRefresh = System.currentTimeMillis();
+
+        // Bukkit has no event for permission changes, so masks are also refreshed periodically.
+        getServer().getScheduler().runTaskTimer(this, () -> {
+            long interval = settingsProvider.getSettings().plugin().bypassRefreshInterval() * 1000L;
+            long now = System.currentTimeMillis();
+            if (interval > 0L && now - lastBypassRefresh >= interval) {
+                lastBypassRefresh = now;
+                bypassCache.refreshAll(getServer().getOnlinePlayers());
+            }
+        }, BYPASS_REFRESH_CHECK_PERIOD, BYPASS_REFRESH_CHECK_PERIOD);
+    }
+
+    private void setupPunishmentQueue() {
+        punishmentQueue = new PunishmentQueue(this, settingsProvider);
+        punishmentQueue.start();
+    }
+
+    private void setupParallelChecks() {
+        ParallelChecksSettings settings = settingsProvider.getSettings().plugin().parallelChecks();
+        parallelCheckEvaluator = settings.enabled() ? new ParallelCheckEvaluator(settings, statistics) : null;
+    }
+
+    /**
+     * Rebuild the settings snapshot used by the built-in checks.
+     * Must be called after the configurations have been reloaded.
+     */
+    public void reloadSettings() {
+        settingsProvider.reload();
+        statistics.setEnabled(settingsProvider.getSettings().plugin().statistics().enabled());
+
+        if (!violationLogWriter.getSettings().equals(settingsProvider.getSettings().plugin().logging())) {
+            final ViolationLogWriter oldWriter = violationLogWriter;
+            setupViolationLog();
+            oldWriter.close(VIOLATION_LOG_CLOSE_TIMEOUT);
+        }
+
+        MetricsConfig metricsConfig = Objects.requireNonNull(configData.getConfig(Configurations.METRICS_SETTINGS));
+        ExporterSettings exporterSettings = metricsConfig.getExporterSettings();
+        if (prometheusExporter == null ? exporterSettings.enabled() : !prometheusExporter.getSettings().equals(exporterSettings)) {
+            if (prometheusExporter != null) {
+                prometheusExporter.stop();
+                prometheusExporter = null;
+            }
+            setupMetricsExporter();
+        }
+
+        final ParallelCheckEvaluator oldEvaluator = parallelCheckEvaluator;
+        final ParallelChecksSettings parallelChecks = settingsProvider.getSettings().plugin().parallelChecks();
+        if (oldEvaluator == null ? parallelChecks.enabled() : !oldEvaluator.getSettings().equals(parallelChecks)) {
+            setupParallelChecks();
+            if (oldEvaluator != null) {
+                oldEvaluator.shutdown();
+            }
+        }
+    }
+
     private void setupListeners() {
         PluginManager pManager = getServer().getPluginManager();
-        chatListener = new ChatListener(safeChatHibernate, checksContainer);
+        chatListener = new ChatListener(safeChatHibernate, checksContainer, bypassCache);
         pManager.registerEvents(chatListener, this);
+        playerConnectionListener = new PlayerConnectionListener(playerStateStore,
+                Objects.requireNonNull(safeChatHibernate.getPlayerDataManager()).getFlagCache(), bypassCache, onlineNames);
+        pManager.registerEvents(playerConnectionListener, this);
+        // players that were online before SafeChat was enabled get their flags loaded on first use.
+        getServer().getOnlinePlayers().forEach(player -> playerConnectionListener.getFlagCache().connect(player.getUniqueId()));
     }
 
     private void setupCommands() {
@@ -138,6 +302,7 @@ public final class SafeChat extends JavaPlugin {
         safeChatHibernate = new SafeChatHibernate(Objects.requireNonNull(configData.getConfig(Configurations.DATABASE_SETTINGS)), this, this.getClassLoader());
         safeChatHibernate.setupHibernateSQLMapping();
         safeChatHibernate.setupSessionFactory();
+        safeChatHibernate.setupPersistenceExecutor();
         safeChatHibernate.setupPlayerDataManager();
         Thread.currentThread().setContextClassLoader(old);
     }
@@ -156,16 +321,40 @@ public final class SafeChat extends JavaPlugin {
             getLogger().warning("Vault not present, cannot use economy functionalities.");
         }
         setupHibernate();
+        setupSettings();
+        setupStatistics();
+        setupViolationLog();
+        setupPlayerStateStore();
         setupChecksContainer();
+        setupBypassCache();
+        setupParallelChecks();
+        setupPunishmentQueue();
+        setupMetricsExporter();
         setupCommands();
         setupListeners();
     }
 
     @Override
     public void onDisable() {
+        if (prometheusExporter != null)
+            prometheusExporter.stop();
+
         if (safeChatHibernate != null)
             safeChatHibernate.shutdown();
 
+        // after the database work has drained, as violations completing meanwhile still queue punishments.
+        if (punishmentQueue != null)
+            punishmentQueue.shutdown();
+
+        if (violationLogWriter != null)
+            violationLogWriter.close(VIOLATION_LOG_CLOSE_TIMEOUT);
+
+        if (parallelCheckEvaluator != null)
+            parallelCheckEvaluator.shutdown();
+
+        if (statistics.isEnabled() && settingsProvider != null && settingsProvider.getSettings().plugin().statistics().dumpInterval() > 0L)
+            dumpStatistics();
+
         unregisterCommands();
     }
 
@@ -218,4 +407,52 @@ public final class SafeChat extends JavaPlugin {
     public Debugger getDebugger() {
         return debugger;
     }
+
+    @NotNull
+    public SettingsProvider getSettingsProvider() {
+        return settingsProvider;
+    }
+
+    @NotNull
+    public PlayerStateStore getPlayerStateStore() {
+        return playerStateStore;
+    }
+
+    @NotNull
+    public OnlineNames getOnlineNames() {
+        return onlineNames;
+    }
+
+    @NotNull
+    public ViolationLogWriter getViolationLogWriter() {
+        return violationLogWriter;
+    }
+
+    @NotNull
+    public PunishmentQueue getPunishmentQueue() {
+        return punishmentQueue;
+    }
+
+    @NotNull
+    public BypassCache getBypassCache() {
+        return bypassCache;
+    }
+
+    @NotNull
+    public StatisticsRegistry getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return The evaluator of the parallel checks, or null if they are disabled.
+     */
+    @Nullable
+    public ParallelCheckEvaluator getParallelCheckEvaluator() {
+        return parallelCheckEvaluator;
+    }
+
+    @NotNull
+    public PlayerConnectionListener getPlayerConnectionListener() {
+        return playerConnectionListener;
+    }
 }
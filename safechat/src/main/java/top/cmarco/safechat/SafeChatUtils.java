@@ -26,20 +26,12 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.tomlj.TomlArray;
 import top.cmarco.safechat.api.checks.Check;
+import top.cmarco.safechat.logging.ViolationLogWriter;
+import top.cmarco.safechat.logging.ViolationRecord;
 
-import java.io.File;
-import java.io.IOException;
 import java.lang.reflect.Field;
-import java.time.Instant;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.FileHandler;
-import java.util.logging.Level;
-import java.util.logging.LogRecord;
-import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
 
 public final class SafeChatUtils {
 
@@ -55,47 +47,20 @@ public final class SafeChatUtils {
         return ChatColor.translateAlternateColorCodes(DEFAULT_COLOR_CHAR, string);
     }
 
-    public static void logMessage(Check check, Player player, String message) {
+    /**
+     * Queue a violation for the check logs, if the check has logging enabled.
+     * The log file is written asynchronously by the {@link ViolationLogWriter}.
+     *
+     * @param check   The failed check.
+     * @param player  The player.
+     * @param message The message sent by the player.
+     */
+    public static void logMessage(@NotNull Check check, @NotNull Player player, @NotNull String message) {
         if (!check.getLoggingEnabled()) {
             return;
         }
-        Logger logger = Logger.getLogger(check.getName() + " check");
-        try {
-            File file = new File(SafeChat.getPlugin(SafeChat.class).getDataFolder(), "logs/checkLogs.log");
-            File directory = new File(SafeChat.getPlugin(SafeChat.class).getDataFolder(), "logs/");
-            if (!directory.exists() && !directory.mkdirs()) {
-                return;
-            }
-            if (!file.exists() && !file.createNewFile()) {
-                return;
-            }
-            FileHandler fileHandler = new FileHandler(file.getPath(), true);
-            fileHandler.setFormatter(new SimpleFormatter() {
-                @Override
-                public String format(LogRecord logRecord) {
-                    ZonedDateTime zdt = ZonedDateTime.ofInstant(
-                            Instant.ofEpochMilli(logRecord.getMillis()), ZoneId.systemDefault());
-                    String source;
-                    source = logRecord.getLoggerName();
-                    String message = formatMessage(logRecord);
-                    return String.format("%1$tb %1$td, %1$tY %1$tl:%1$tM:%1$tS %1$Tp %2$s%n%4$s: %5$s%n",
-                            zdt,
-                            source,
-                            logRecord.getLoggerName(),
-                            logRecord.getLevel().getLocalizedName(),
-                            message);
-                }
-            });
-
-            logger.addHandler(fileHandler);
-            logger.setUseParentHandlers(false);
-            logger.setLevel(Level.INFO);
-
-            logger.log(Level.INFO, player.getName() + ": " + message + "\n");
-            fileHandler.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        final ViolationLogWriter writer = SafeChat.getPlugin(SafeChat.class).getViolationLogWriter();
+        writer.log(new ViolationRecord(System.currentTimeMillis(), check.getName(), player.getName(), message));
     }
 
     @NotNull
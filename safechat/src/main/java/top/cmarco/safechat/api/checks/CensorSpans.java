@@ -0,0 +1,153 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.api.checks;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Collects the spans of a message to mask.
+ * Checks use it to build a {@link CheckVerdict#censor(CensorSpans) censor verdict}, and the
+ * chat listener uses it to merge the spans of every censoring check, so that
+ * the message is masked in a single pass however many checks censored it.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public final class CensorSpans {
+
+    /**
+     * The character every masked character is replaced with.
+     */
+    public static final char MASK = '*';
+
+    private long[] spans = new long[4];
+    private int size;
+    private boolean merged = true;
+
+    /**
+     * Add a span.
+     *
+     * @param start The index of the first character to mask.
+     * @param end   The index after the last character to mask.
+     */
+    public void add(int start, int end) {
+        if (end <= start || start < 0) {
+            return;
+        }
+        if (size == spans.length) {
+            spans = Arrays.copyOf(spans, size * 2);
+        }
+        // packed so that sorting the longs sorts the spans by start.
+        spans[size++] = ((long) start << Integer.SIZE) | end;
+        merged = false;
+    }
+
+    /**
+     * Add the spans of a censor verdict.
+     *
+     * @param verdict The verdict.
+     */
+    public void addAll(@NotNull CheckVerdict verdict) {
+        for (int i = 0; i < verdict.getSpanCount(); i++) {
+            add(verdict.getSpanStart(i), verdict.getSpanEnd(i));
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Sort the spans and merge the ones that overlap or touch.
+     */
+    private void merge() {
+        if (merged) {
+            return;
+        }
+        Arrays.sort(spans, 0, size);
+        int last = 0;
+        for (int i = 1; i < size; i++) {
+            if (start(spans[i]) <= end(spans[last])) {
+                final int end = Math.max(end(spans[last]), end(spans[i]));
+                spans[last] = ((long) start(spans[last]) << Integer.SIZE) | end;
+            } else {
+                spans[++last] = spans[i];
+            }
+        }
+        size = Math.min(size, last + 1);
+        merged = true;
+    }
+
+    /**
+     * @return The merged spans, as pairs of start and end indices.
+     */
+    public int @NotNull [] toArray() {
+        merge();
+        final int[] result = new int[size * 2];
+        for (int i = 0; i < size; i++) {
+            result[i * 2] = start(spans[i]);
+            result[i * 2 + 1] = end(spans[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Mask the spans of a message, whitespace excluded, one {@link #MASK} per code point.
+     *
+     * @param message The message the spans were found in.
+     * @return The masked message.
+     */
+    @NotNull
+    public String apply(@NotNull String message) {
+        merge();
+        final int length = message.length();
+        final StringBuilder result = new StringBuilder(length);
+        int copied = 0;
+        for (int i = 0; i < size && copied < length; i++) {
+            final int start = Math.max(copied, start(spans[i]));
+            final int end = Math.min(length, end(spans[i]));
+            if (start >= end) {
+                continue;
+            }
+            result.append(message, copied, start);
+            int j = start;
+            while (j < end) {
+                final int codePoint = message.codePointAt(j);
+                if (NormalizedMessage.isSplitSpace(codePoint)) {
+                    result.appendCodePoint(codePoint);
+                } else {
+                    result.append(MASK);
+                }
+                j += Character.charCount(codePoint);
+            }
+            copied = j;
+        }
+        result.append(message, copied, length);
+        return result.toString();
+    }
+
+    private static int start(long span) {
+        return (int) (span >>> Integer.SIZE);
+    }
+
+    private static int end(long span) {
+        return (int) span;
+    }
+}
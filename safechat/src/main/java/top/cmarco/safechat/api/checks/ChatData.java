@@ -26,6 +26,7 @@ public class ChatData {
     private final Player player;
     private final String message;
     private final long sentAt;
+    private volatile NormalizedMessage normalized;
 
     public ChatData(@NotNull Player player, @NotNull String message, long sentAt) {
         this.player = player;
@@ -46,4 +47,20 @@ public class ChatData {
     public long getSentAt() {
         return sentAt;
     }
+
+    /**
+     * Get the normalized views of the message.
+     * They are computed on the first call and shared by every check afterwards.
+     *
+     * @return The normalized message.
+     */
+    @NotNull
+    public NormalizedMessage getNormalized() {
+        NormalizedMessage result = normalized;
+        if (result == null) {
+            result = NormalizedMessage.of(message);
+            normalized = result;
+        }
+        return result;
+    }
 }
@@ -73,6 +73,19 @@ public interface Check {
      */
     boolean check(@NotNull ChatData data);
 
+    /**
+     * Evaluate a check on ChatData.
+     * By default, failing {@link #check(ChatData)} blocks the message;
+     * checks can override this to censor parts of the message or rewrite it instead.
+     *
+     * @param data The chat data.
+     * @return The verdict.
+     */
+    @NotNull
+    default CheckVerdict evaluate(@NotNull ChatData data) {
+        return check(data) ? CheckVerdict.block() : CheckVerdict.pass();
+    }
+
     /**
      * Get the warning messages status.
      *
@@ -0,0 +1,129 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.api.checks;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * The outcome of a check on a message.
+ * <ul>
+ *     <li>{@link Type#PASS}: the message is fine;</li>
+ *     <li>{@link Type#CENSOR}: the player failed the check, but only some spans of the
+ *     message are masked and the rest is still sent;</li>
+ *     <li>{@link Type#REWRITE}: the message is fine once rewritten, the player is not flagged;</li>
+ *     <li>{@link Type#BLOCK}: the player failed the check and the message is cancelled;</li>
+ *     <li>{@link Type#REFUSE}: the message is cancelled, but the player did not fail the check,
+ *     e.g. the server as a whole is over a limit: nothing is fired, logged or flagged.</li>
+ * </ul>
+ * Instances are immutable.
+ */
+public final class CheckVerdict {
+
+    private static final int[] NO_SPANS = new int[0];
+    private static final CheckVerdict PASS = new CheckVerdict(Type.PASS, NO_SPANS, null);
+    private static final CheckVerdict BLOCK = new CheckVerdict(Type.BLOCK, NO_SPANS, null);
+    private static final CheckVerdict REFUSE = new CheckVerdict(Type.REFUSE, NO_SPANS, null);
+
+    private final Type type;
+    private final int[] spans;
+    private final UnaryOperator<String> rewriter;
+
+    private CheckVerdict(@NotNull Type type, int @NotNull [] spans, UnaryOperator<String> rewriter) {
+        this.type = type;
+        this.spans = spans;
+        this.rewriter = rewriter;
+    }
+
+    @NotNull
+    public static CheckVerdict pass() {
+        return PASS;
+    }
+
+    @NotNull
+    public static CheckVerdict block() {
+        return BLOCK;
+    }
+
+    @NotNull
+    public static CheckVerdict refuse() {
+        return REFUSE;
+    }
+
+    /**
+     * @param spans The spans of the message to mask, indices of the original message.
+     * @return A censor verdict, or a pass verdict if there are no spans.
+     */
+    @NotNull
+    public static CheckVerdict censor(@NotNull CensorSpans spans) {
+        return spans.isEmpty() ? PASS : new CheckVerdict(Type.CENSOR, spans.toArray(), null);
+    }
+
+    /**
+     * @param rewriter Rewrites the message, applied after the spans of every check are masked.
+     * @return A rewrite verdict.
+     */
+    @NotNull
+    public static CheckVerdict rewrite(@NotNull UnaryOperator<String> rewriter) {
+        return new CheckVerdict(Type.REWRITE, NO_SPANS, Objects.requireNonNull(rewriter));
+    }
+
+    @NotNull
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return True if the player failed the check, that is the message is censored or blocked.
+     */
+    public boolean isFailed() {
+        return type == Type.CENSOR || type == Type.BLOCK;
+    }
+
+    public int getSpanCount() {
+        return spans.length / 2;
+    }
+
+    public int getSpanStart(int index) {
+        return spans[index * 2];
+    }
+
+    public int getSpanEnd(int index) {
+        return spans[index * 2 + 1];
+    }
+
+    /**
+     * @param message The message to rewrite.
+     * @return The rewritten message, the same message if this is not a rewrite verdict.
+     */
+    @NotNull
+    public String rewrite(@NotNull String message) {
+        return rewriter == null ? message : rewriter.apply(message);
+    }
+
+    public enum Type {
+        PASS,
+        CENSOR,
+        REWRITE,
+        BLOCK,
+        REFUSE
+    }
+}
@@ -26,26 +26,31 @@ import top.cmarco.safechat.api.events.CheckRegisterEvent;
 import top.cmarco.safechat.SafeChatUtils;
 import top.cmarco.safechat.api.events.CheckUnregisterEvent;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.Deque;
 import java.util.EnumMap;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 
 public final class ChecksContainer {
 
     public static final Comparator<Check> CHECK_PRIORITY_COMPARATOR = Comparator.comparing(a -> a.getCheckPriority().v);
+    private static final Check[] NO_CHECKS = new Check[0];
     private static ChecksContainer instance = null;
     private final SafeChat safeChat;
-    private final Map<CheckPriority.Priority, LinkedList<Check>> registeredChecks;
+    private final Map<CheckPriority.Priority, List<Check>> registeredChecks;
+    private volatile Check[] activeChecks = NO_CHECKS;
+    private volatile List<Check> activeChecksView = Collections.emptyList();
 
     public ChecksContainer(@NotNull SafeChat safeChat) {
         this.safeChat = safeChat;
         this.registeredChecks = new EnumMap<>(CheckPriority.Priority.class);
         for (CheckPriority.Priority value : CheckPriority.Priority.values()) {
-            this.registeredChecks.put(value, new LinkedList<>());
+            this.registeredChecks.put(value, new ArrayList<>());
         }
     }
 
@@ -78,6 +83,21 @@ public final class ChecksContainer {
         console.sendMessage(SafeChatUtils.color(String.format("%s &7registered new check &e%s", SafeChat.getLocale().getString("prefix"), check.getName())));
     }
 
+    /**
+     * Rebuild the priority-ordered snapshot of the active checks.
+     * Must be called while holding the lock of this container.
+     */
+    private void publishSnapshot() {
+        final List<Check> ordered = new ArrayList<>();
+        for (CheckPriority.Priority priority : CheckPriority.Priority.values()) {
+            ordered.addAll(registeredChecks.get(priority));
+        }
+
+        final Check[] snapshot = ordered.toArray(NO_CHECKS);
+        activeChecksView = Collections.unmodifiableList(Arrays.asList(snapshot));
+        activeChecks = snapshot;
+    }
+
     /**
      * Register a check if it wasn't.
      *
@@ -88,20 +108,21 @@ public final class ChecksContainer {
             return false;
         }
 
-        LinkedList<Check> checks = registeredChecks.get(check.getCheckPriority());
+        synchronized (this) {
+            List<Check> checks = registeredChecks.get(check.getCheckPriority());
 
-        if (checks.contains(check)) {
-            return false;
-        }
+            if (checks.contains(check)) {
+                return false;
+            }
 
-        boolean added = checks.add(check);
-
-        if (added) {
-            PluginManager manager = safeChat.getServer().getPluginManager();
-            manager.callEvent(new CheckRegisterEvent(check));
-            logCheckRegistration(check);
+            checks.add(check);
+            publishSnapshot();
         }
-        return added;
+
+        PluginManager manager = safeChat.getServer().getPluginManager();
+        manager.callEvent(new CheckRegisterEvent(check));
+        logCheckRegistration(check);
+        return true;
     }
 
     /**
@@ -115,30 +136,39 @@ public final class ChecksContainer {
             return false;
         }
 
-        LinkedList<Check> checks = registeredChecks.get(check.getCheckPriority());
-
-        boolean removed = checks.remove(check);
-
-        if (removed) {
-            PluginManager manager = safeChat.getServer().getPluginManager();
-            manager.callEvent(new CheckUnregisterEvent(check));
+        synchronized (this) {
+            if (!registeredChecks.get(check.getCheckPriority()).remove(check)) {
+                return false;
+            }
+            publishSnapshot();
         }
-        return removed;
+
+        PluginManager manager = safeChat.getServer().getPluginManager();
+        manager.callEvent(new CheckUnregisterEvent(check));
+        return true;
     }
 
     /**
      * Get all of the active checks.
      * The checks are returned ordered by their priority.
+     * The returned collection is an unmodifiable snapshot: it is not affected
+     * by checks registered or unregistered afterwards.
      *
      * @return The active checks.
      */
     @NotNull
     public Collection<Check> getActiveChecks() {
-        Deque<Check> orderedChecks = new LinkedList<>();
-        for (CheckPriority.Priority priority : CheckPriority.Priority.values()) {
-            registeredChecks.get(priority).forEach(orderedChecks::offerLast);
-        }
+        return activeChecksView;
+    }
 
-        return orderedChecks;
+    /**
+     * Get all of the active checks, ordered by their priority, without any allocation.
+     * The array is shared by every caller and must never be modified.
+     *
+     * @return The active checks snapshot.
+     */
+    @NotNull
+    public Check[] getActiveChecksSnapshot() {
+        return activeChecks;
     }
 }
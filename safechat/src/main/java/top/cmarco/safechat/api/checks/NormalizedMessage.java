@@ -0,0 +1,264 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.api.checks;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The views of a chat message that checks commonly need.
+ * Everything except the lowercase text is computed in a single pass over
+ * the message when the instance is created; the instance is created at most
+ * once per message by {@link ChatData#getNormalized()} and shared by every check.
+ */
+public final class NormalizedMessage {
+
+    /**
+     * The character used by Minecraft for color codes.
+     */
+    public static final char COLOR_CHAR = '§';
+    private static final String COLOR_CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx";
+    private static final int[] NO_TOKENS = new int[0];
+
+    private final String original;
+    private final String stripped;
+    private final String colorStripped;
+    private final int[] tokenBounds;
+    private final int uppercaseCount;
+    private volatile String lowercase;
+    private volatile int[] strippedOrigins;
+    private volatile String[] tokens;
+
+    private NormalizedMessage(@NotNull String original, @NotNull String stripped, @NotNull String colorStripped,
+                              int @NotNull [] tokenBounds, int uppercaseCount) {
+        this.original = original;
+        this.stripped = stripped;
+        this.colorStripped = colorStripped;
+        this.tokenBounds = tokenBounds;
+        this.uppercaseCount = uppercaseCount;
+    }
+
+    /**
+     * Compute the views of a message.
+     *
+     * @param message The message.
+     * @return The normalized message.
+     */
+    @NotNull
+    public static NormalizedMessage of(@NotNull String message) {
+        final int length = message.length();
+        final StringBuilder stripped = new StringBuilder(length);
+        final StringBuilder colorStripped = new StringBuilder(length);
+        int[] bounds = NO_TOKENS;
+        int tokenCount = 0;
+        int tokenStart = -1;
+        int uppercase = 0;
+        boolean leadingSpace = false;
+
+        for (int i = 0; i < length; ) {
+            final int codePoint = message.codePointAt(i);
+            final int charCount = Character.charCount(codePoint);
+
+            if (isLetterOrKept(codePoint)) {
+                stripped.appendCodePoint(codePoint);
+            }
+
+            if (codePoint == COLOR_CHAR && i + 1 < length && COLOR_CODES.indexOf(message.charAt(i + 1)) >= 0) {
+                // the color code is dropped, but it is still part of the token.
+            } else if (i == 0 || message.charAt(i - 1) != COLOR_CHAR || COLOR_CODES.indexOf(message.charAt(i)) < 0) {
+                colorStripped.appendCodePoint(codePoint);
+            }
+
+            for (int j = 0; j < charCount; j++) {
+                if (Character.isUpperCase(message.charAt(i + j))) {
+                    uppercase++;
+                }
+            }
+
+            if (isSplitSpace(codePoint)) {
+                if (tokenStart >= 0) {
+                    bounds = addToken(bounds, tokenCount++, tokenStart, i);
+                    tokenStart = -1;
+                } else if (i == 0) {
+                    leadingSpace = true;
+                }
+            } else if (tokenStart < 0) {
+                tokenStart = i;
+            }
+
+            i += charCount;
+        }
+
+        if (tokenStart >= 0) {
+            bounds = addToken(bounds, tokenCount++, tokenStart, length);
+        }
+        if (leadingSpace && tokenCount > 0) {
+            // String#split keeps an empty first token when the message starts with whitespace.
+            bounds = addLeadingEmptyToken(bounds, tokenCount++);
+        }
+        if (tokenCount == 0) {
+            // String#split of an empty or blank message.
+            bounds = length == 0 ? new int[]{0, 0} : NO_TOKENS;
+            tokenCount = bounds.length / 2;
+        }
+
+        return new NormalizedMessage(message, stripped.toString(), colorStripped.toString(),
+                bounds.length == tokenCount * 2 ? bounds : Arrays.copyOf(bounds, tokenCount * 2), uppercase);
+    }
+
+    private static boolean isLetterOrKept(int codePoint) {
+        return Character.isLetter(codePoint) || (codePoint >= '0' && codePoint <= '9') || codePoint == COLOR_CHAR || codePoint == '&';
+    }
+
+    /**
+     * @param codePoint A code point.
+     * @return Whether it is matched by the {@code \s} regex class.
+     */
+    public static boolean isSplitSpace(int codePoint) {
+        return codePoint == ' ' || codePoint == '\t' || codePoint == '\n' || codePoint == 0x0B || codePoint == '\f' || codePoint == '\r';
+    }
+
+    private static int @NotNull [] addToken(int @NotNull [] bounds, int index, int start, int end) {
+        if (bounds.length < (index + 1) * 2) {
+            bounds = Arrays.copyOf(bounds, Math.max(8, bounds.length * 2));
+        }
+        bounds[index * 2] = start;
+        bounds[index * 2 + 1] = end;
+        return bounds;
+    }
+
+    private static int @NotNull [] addLeadingEmptyToken(int @NotNull [] bounds, int tokenCount) {
+        final int[] shifted = new int[(tokenCount + 1) * 2];
+        System.arraycopy(bounds, 0, shifted, 2, tokenCount * 2);
+        return shifted;
+    }
+
+    /**
+     * @return The message as it was sent.
+     */
+    @NotNull
+    public String getOriginal() {
+        return original;
+    }
+
+    /**
+     * @return The message in lowercase ({@link Locale#ROOT}).
+     */
+    @NotNull
+    public String getLowercase() {
+        String result = lowercase;
+        if (result == null) {
+            result = original.toLowerCase(Locale.ROOT);
+            lowercase = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return The message with every character that is not a letter, a digit, '&amp;' or '§' removed,
+     * same as removing {@link ChatCheck#ABNORMAL_CHARACTERS}.
+     */
+    @NotNull
+    public String getStripped() {
+        return stripped;
+    }
+
+    /**
+     * Map an index of the {@link #getStripped() stripped} message back to the original message.
+     *
+     * @param index An index of the stripped message.
+     * @return The index of the same character in the original message.
+     */
+    public int getStrippedOrigin(int index) {
+        int[] result = strippedOrigins;
+        if (result == null) {
+            result = new int[stripped.length()];
+            int next = 0;
+            for (int i = 0; i < original.length(); ) {
+                final int codePoint = original.codePointAt(i);
+                final int charCount = Character.charCount(codePoint);
+                if (isLetterOrKept(codePoint)) {
+                    for (int j = 0; j < charCount; j++) {
+                        result[next++] = i + j;
+                    }
+                }
+                i += charCount;
+            }
+            strippedOrigins = result;
+        }
+        return result[index];
+    }
+
+    /**
+     * @return The message without Minecraft color codes.
+     */
+    @NotNull
+    public String getColorStripped() {
+        return colorStripped;
+    }
+
+    /**
+     * @return The amount of uppercase characters.
+     */
+    public int getUppercaseCount() {
+        return uppercaseCount;
+    }
+
+    /**
+     * @return The amount of whitespace separated tokens, same as splitting by {@link ChatCheck#SPLIT_SPACE}.
+     */
+    public int getTokenCount() {
+        return tokenBounds.length / 2;
+    }
+
+    /**
+     * @param index The token index.
+     * @return The index of the first character of the token in the original message.
+     */
+    public int getTokenStart(int index) {
+        return tokenBounds[index * 2];
+    }
+
+    /**
+     * @param index The token index.
+     * @return The index after the last character of the token in the original message.
+     */
+    public int getTokenEnd(int index) {
+        return tokenBounds[index * 2 + 1];
+    }
+
+    /**
+     * @return The tokens, same as splitting by {@link ChatCheck#SPLIT_SPACE}.
+     * The array is shared and must not be modified.
+     */
+    @NotNull
+    public String[] getTokens() {
+        String[] result = tokens;
+        if (result == null) {
+            result = new String[getTokenCount()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = original.substring(getTokenStart(i), getTokenEnd(i));
+            }
+            tokens = result;
+        }
+        return result;
+    }
+}
@@ -28,6 +28,8 @@ import top.cmarco.safechat.api.checks.Check;
  * This check is called when a player has failed one of the loaded chat checks.
  * This check is cancellable: doing so will make the player pass correctly the check.
  * This event is not synchronized with the minecraft server's main thread.
+ * When another plugin fires this event and it is not cancelled, SafeChat evaluates
+ * the punishment of the check against the player's current flags, without flagging them.
  */
 public class PlayerFailCheckEvent extends ChatCheckEvent implements Cancellable {
 
@@ -0,0 +1,227 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import top.cmarco.safechat.SafeChatUtils;
+import top.cmarco.safechat.api.checks.CensorSpans;
+import top.cmarco.safechat.api.checks.ChatData;
+import top.cmarco.safechat.api.checks.Check;
+import top.cmarco.safechat.api.checks.CheckVerdict;
+import top.cmarco.safechat.api.events.PlayerFailCheckEvent;
+import top.cmarco.safechat.chat.check.ParallelCheckEvaluator;
+import top.cmarco.safechat.chat.state.BypassCache;
+import top.cmarco.safechat.chat.state.PlayerChatSequencer;
+import top.cmarco.safechat.logging.ViolationRecord;
+import top.cmarco.safechat.statistics.StatisticsRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs the active checks on a chat message, in priority order:
+ * bypassed checks are skipped, censored spans and rewrites are collected,
+ * and the first blocking check cancels the message.
+ * Every failure fires a {@link PlayerFailCheckEvent}, is logged, warned
+ * and handed over to the violation handler.
+ */
+public final class ChatPipeline {
+
+    private final Supplier<Check[]> activeChecks;
+    private final BypassCache bypassCache;
+    private final StatisticsRegistry statistics;
+    private final Supplier<ParallelCheckEvaluator> parallelEvaluator;
+    private final PluginManager pluginManager;
+    private final Consumer<ViolationRecord> violationLog;
+    private final BiConsumer<Check, ChatData> violationHandler;
+    private final LongSupplier clock;
+    private final PlayerChatSequencer sequencer = new PlayerChatSequencer();
+    // the event being fired by this pipeline, to tell it apart from the ones fired by other plugins.
+    private final ThreadLocal<PlayerFailCheckEvent> firing = new ThreadLocal<>();
+
+    /**
+     * @param activeChecks      Supplies the current active checks snapshot.
+     * @param bypassCache       The players bypass masks.
+     * @param statistics        The statistics the checks are measured with.
+     * @param parallelEvaluator Supplies the current parallel evaluator, null when disabled.
+     * @param pluginManager     Fires the {@link PlayerFailCheckEvent}s.
+     * @param violationLog      Logs the violations of the checks with logging enabled.
+     * @param violationHandler  Flags and punishes the players failing a check.
+     * @param clock             Supplies the epoch millis a message is sent at.
+     */
+    public ChatPipeline(@NotNull Supplier<Check[]> activeChecks, @NotNull BypassCache bypassCache,
+                        @NotNull StatisticsRegistry statistics, @NotNull Supplier<ParallelCheckEvaluator> parallelEvaluator,
+                        @NotNull PluginManager pluginManager, @NotNull Consumer<ViolationRecord> violationLog,
+                        @NotNull BiConsumer<Check, ChatData> violationHandler, @NotNull LongSupplier clock) {
+        this.activeChecks = Objects.requireNonNull(activeChecks);
+        this.bypassCache = Objects.requireNonNull(bypassCache);
+        this.statistics = Objects.requireNonNull(statistics);
+        this.parallelEvaluator = Objects.requireNonNull(parallelEvaluator);
+        this.pluginManager = Objects.requireNonNull(pluginManager);
+        this.violationLog = Objects.requireNonNull(violationLog);
+        this.violationHandler = Objects.requireNonNull(violationHandler);
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    private static void sendWarning(@NotNull Check check, @NotNull ChatData data) {
+        if (!check.hasWarningEnabled()) {
+            return;
+        }
+
+        Player player = data.getPlayer();
+
+        for (String msg : check.getWarningMessages()) {
+            String message = check.replacePlaceholders(Objects.requireNonNull(msg), data);
+            player.sendMessage(SafeChatUtils.color(message));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    private static ForkJoinTask<CheckVerdict>[] newTasks(int length) {
+        return (ForkJoinTask<CheckVerdict>[]) new ForkJoinTask<?>[length];
+    }
+
+    /**
+     * Run the checks on a message.
+     *
+     * @param player  The sender.
+     * @param message The message.
+     * @return The message to send, censored or rewritten if needed, or null if it is cancelled.
+     */
+    @Nullable
+    public String process(@NotNull Player player, @NotNull String message) {
+        // the stateful checks must see the messages of a player in order, one at a time.
+        UUID uuid = player.getUniqueId();
+        sequencer.acquire(uuid);
+        try {
+            return run(new ChatData(player, message, clock.getAsLong()));
+        } finally {
+            sequencer.release(uuid);
+        }
+    }
+
+    @Nullable
+    private String run(@NotNull ChatData data) {
+        Player player = data.getPlayer();
+        Check[] sortedPriorityChecks = activeChecks.get();
+        long bypassMask = bypassCache.getMask(player, sortedPriorityChecks);
+
+        statistics.recordChatEvent();
+        ParallelCheckEvaluator evaluator = parallelEvaluator.get();
+        ForkJoinTask<CheckVerdict>[] tasks = evaluator == null ? null : newTasks(sortedPriorityChecks.length);
+        int tierEnd = 0;
+        CensorSpans censored = null;
+        List<CheckVerdict> rewrites = null;
+
+        for (int i = 0; i < sortedPriorityChecks.length; i++) {
+            Check check = sortedPriorityChecks[i];
+
+            if (tasks != null && i == tierEnd) {
+                tierEnd = evaluator.startTier(data, sortedPriorityChecks, bypassMask, i, tasks);
+            }
+
+            if (BypassCache.isBypassed(bypassMask, i, player, check)) {
+                continue;
+            }
+
+            CheckVerdict verdict = tasks == null ? statistics.runCheck(check, data) : evaluator.result(check, data, tasks[i]);
+
+            if (verdict.getType() == CheckVerdict.Type.REWRITE) {
+                if (rewrites == null) {
+                    rewrites = new ArrayList<>(1);
+                }
+                rewrites.add(verdict);
+                continue;
+            }
+
+            if (verdict.getType() == CheckVerdict.Type.REFUSE) {
+                if (tasks != null) {
+                    ParallelCheckEvaluator.cancelFrom(tasks, i + 1);
+                }
+                return null;
+            }
+
+            if (!verdict.isFailed()) {
+                continue;
+            }
+
+            PlayerFailCheckEvent playerFailCheckEvent = new PlayerFailCheckEvent(check, data);
+            firing.set(playerFailCheckEvent);
+            try {
+                pluginManager.callEvent(playerFailCheckEvent);
+            } finally {
+                firing.remove();
+            }
+
+            if (playerFailCheckEvent.isCancelled()) {
+                continue;
+            }
+
+            if (check.getLoggingEnabled()) {
+                violationLog.accept(new ViolationRecord(data.getSentAt(), check.getName(), player.getName(), data.getMessage()));
+            }
+
+            if (verdict.getType() == CheckVerdict.Type.CENSOR) {
+                // the message still goes through, masked once every check has had its say.
+                if (censored == null) {
+                    censored = new CensorSpans();
+                }
+                censored.addAll(verdict);
+                sendWarning(check, data);
+                violationHandler.accept(check, data);
+                continue;
+            }
+
+            if (tasks != null) {
+                ParallelCheckEvaluator.cancelFrom(tasks, i + 1);
+            }
+
+            sendWarning(check, data);
+            violationHandler.accept(check, data);
+            return null;
+        }
+
+        String message = censored == null ? data.getMessage() : censored.apply(data.getMessage());
+        if (rewrites != null) {
+            for (CheckVerdict rewrite : rewrites) {
+                message = rewrite.rewrite(message);
+            }
+        }
+        return message;
+    }
+
+    /**
+     * @param event A fail check event.
+     * @return Whether the event is being fired by this pipeline, on the current thread.
+     */
+    public boolean isFiring(@NotNull PlayerFailCheckEvent event) {
+        return firing.get() == event;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.api.checks.ChatData;
+import top.cmarco.safechat.api.checks.Check;
+import top.cmarco.safechat.api.checks.CheckPriority;
+import top.cmarco.safechat.api.checks.CheckVerdict;
+import top.cmarco.safechat.api.checks.StatelessCheck;
+import top.cmarco.safechat.chat.state.BypassCache;
+import top.cmarco.safechat.config.settings.ParallelChecksSettings;
+import top.cmarco.safechat.statistics.StatisticsRegistry;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Evaluates the {@link StatelessCheck stateless} checks of a priority tier
+ * concurrently on a work-stealing pool.
+ * The verdicts are still consumed in priority order by the caller, so the
+ * first blocking check keeps winning; stateful checks are never started
+ * early and run on the caller thread when they are reached, as before.
+ */
+public final class ParallelCheckEvaluator {
+
+    private static final ClassValue<Boolean> STATELESS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return type.isAnnotationPresent(StatelessCheck.class);
+        }
+    };
+
+    private final ParallelChecksSettings settings;
+    private final StatisticsRegistry statistics;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param settings   The parallel checks settings, the parallelism 0 meaning one less than the available processors.
+     * @param statistics The statistics the checks are measured with.
+     */
+    public ParallelCheckEvaluator(@NotNull ParallelChecksSettings settings, @NotNull StatisticsRegistry statistics) {
+        this.settings = Objects.requireNonNull(settings);
+        this.statistics = Objects.requireNonNull(statistics);
+        final int threads = settings.parallelism() > 0 ? settings.parallelism() : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.pool = new ForkJoinPool(threads, forkJoinPool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("SafeChat-Checks-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * @param check A check.
+     * @return Whether the check is annotated with {@link StatelessCheck}.
+     */
+    public static boolean isStateless(@NotNull Check check) {
+        return STATELESS.get(check.getClass());
+    }
+
+    /**
+     * Start every stateless, non-bypassed check of the tier beginning at an index.
+     * Nothing is started if the tier has less than two such checks, as there
+     * would be nothing to run concurrently.
+     *
+     * @param data   The chat data.
+     * @param checks The active checks snapshot.
+     * @param mask   The bypass mask of the player for the snapshot.
+     * @param from   The index of the first check of the tier.
+     * @param tasks  Receives the started tasks, at the index of their check.
+     * @return The index after the last check of the tier.
+     */
+    public int startTier(@NotNull ChatData data, @NotNull Check[] checks, long mask, int from, @NotNull ForkJoinTask<CheckVerdict>[] tasks) {
+        final CheckPriority.Priority tier = checks[from].getCheckPriority();
+        final Player player = data.getPlayer();
+
+        int end = from;
+        int stateless = 0;
+        while (end < checks.length && checks[end].getCheckPriority() == tier) {
+            if (isStateless(checks[end]) && !BypassCache.isBypassed(mask, end, player, checks[end])) {
+                stateless++;
+            }
+            end++;
+        }
+
+        if (stateless < 2) {
+            return end;
+        }
+
+        // computed once here, rather than concurrently by the first checks using it.
+        data.getNormalized();
+
+        for (int i = from; i < end; i++) {
+            final Check check = checks[i];
+            if (isStateless(check) && !BypassCache.isBypassed(mask, i, player, check)) {
+                try {
+                    tasks[i] = pool.submit(() -> statistics.runCheck(check, data));
+                } catch (RejectedExecutionException e) {
+                    // the pool is shutting down after a reload, the remaining checks run inline.
+                    break;
+                }
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Get the result of a check, waiting for it if it was started,
+     * otherwise evaluating it on the calling thread.
+     * A task that has been cancelled is evaluated on the calling thread as well.
+     *
+     * @param check The check.
+     * @param data  The chat data.
+     * @param task  The started task, or null.
+     * @return The verdict of the check.
+     */
+    @NotNull
+    public CheckVerdict result(@NotNull Check check, @NotNull ChatData data, ForkJoinTask<CheckVerdict> task) {
+        if (task == null) {
+            return statistics.runCheck(check, data);
+        }
+        try {
+            return task.join();
+        } catch (CancellationException e) {
+            return statistics.runCheck(check, data);
+        }
+    }
+
+    /**
+     * Cancel the started tasks from an index onwards, their results are no longer needed.
+     *
+     * @param tasks The started tasks.
+     * @param from  The first index to cancel.
+     */
+    public static void cancelFrom(@NotNull ForkJoinTask<CheckVerdict>[] tasks, int from) {
+        for (int i = from; i < tasks.length; i++) {
+            final ForkJoinTask<CheckVerdict> task = tasks[i];
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Stop accepting new tasks. The tasks already started still complete,
+     * as chat threads may be waiting for them.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @NotNull
+    public ParallelChecksSettings getSettings() {
+        return settings;
+    }
+
+    @NotNull
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+}
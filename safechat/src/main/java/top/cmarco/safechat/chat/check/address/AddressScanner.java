@@ -0,0 +1,310 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.address;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import top.cmarco.safechat.api.checks.CensorSpans;
+
+import java.util.Arrays;
+
+/**
+ * Finds the domains and IPv4 addresses of a message in a single pass.
+ * <p>
+ * The message is cut in runs of labels ({@code [A-Za-z0-9-]+}) joined by
+ * separators ({@code .}, {@code ,} or the {@code [.]} obfuscation). Within a run:
+ * <ul>
+ *     <li>a domain is found where a label of at least 3 characters is followed by
+ *     a separator and a label starting with at least 2 letters, like
+ *     {@link top.cmarco.safechat.api.checks.ChatCheck#DOMAIN_REGEX} did; the whole
+ *     dotted host is then looked up in the whitelist;</li>
+ *     <li>an IPv4 address is found where four labels follow each other, the first
+ *     ending with digits, the two in the middle being numbers of at most 3 digits
+ *     and the last starting with digits, like
+ *     {@link top.cmarco.safechat.api.checks.ChatCheck#IPV4_REGEX} did.</li>
+ * </ul>
+ */
+public final class AddressScanner {
+
+    private static final byte DOT = 0;
+    private static final byte COMMA = 1;
+    private static final int MAX_ADDRESS_PART = 3;
+
+    private AddressScanner() {
+        throw new UnsupportedOperationException("Scanner class cannot be instantiated.");
+    }
+
+    /**
+     * Check whether a message contains a domain or an address that is not whitelisted.
+     *
+     * @param message   The message.
+     * @param whitelist The whitelist.
+     * @return True if a forbidden domain or address was found.
+     */
+    public static boolean containsForbidden(@NotNull String message, @NotNull AddressWhitelist whitelist) {
+        return scan(message, whitelist, null);
+    }
+
+    /**
+     * Find every domain and address of a message that is not whitelisted.
+     *
+     * @param message   The message.
+     * @param whitelist The whitelist.
+     * @param spans     Receives the span of every forbidden domain or address.
+     * @return True if a forbidden domain or address was found.
+     */
+    public static boolean findForbidden(@NotNull String message, @NotNull AddressWhitelist whitelist, @NotNull CensorSpans spans) {
+        return scan(message, whitelist, spans);
+    }
+
+    /**
+     * Check whether a part of a message contains a domain, whitelisted or not.
+     * Domains are found like {@link #containsForbidden(String, AddressWhitelist)}
+     * finds them, without allocating.
+     *
+     * @param message The message.
+     * @param start   The index of the first character.
+     * @param end     The index after the last character.
+     * @return True if a domain was found.
+     */
+    public static boolean containsDomain(@NotNull String message, int start, int end) {
+        // the length of the previous label, when a dot joins it to the next one.
+        int previous = 0;
+        int i = start;
+        while (i < end) {
+            if (!isLabelChar(message.charAt(i))) {
+                previous = 0;
+                i++;
+                continue;
+            }
+
+            final int labelStart = i;
+            while (i < end && isLabelChar(message.charAt(i))) {
+                i++;
+            }
+            if (previous >= 3 && leadingLetters(message, labelStart, i) >= 2) {
+                return true;
+            }
+
+            final int separator = separatorLength(message, i);
+            if (separator > 0 && message.charAt(i) != ',' && i + separator < end && isLabelChar(message.charAt(i + separator))) {
+                previous = i - labelStart;
+                i += separator;
+            } else {
+                previous = 0;
+            }
+        }
+        return false;
+    }
+
+    private static boolean scan(@NotNull String message, @NotNull AddressWhitelist whitelist, @Nullable CensorSpans spans) {
+        final int length = message.length();
+        int[] bounds = new int[8];
+        byte[] separators = new byte[4];
+
+        boolean found = false;
+        int i = 0;
+        while (i < length) {
+            if (!isLabelChar(message.charAt(i))) {
+                i++;
+                continue;
+            }
+
+            int labels = 0;
+            while (true) {
+                final int start = i;
+                while (i < length && isLabelChar(message.charAt(i))) {
+                    i++;
+                }
+                if (bounds.length < (labels + 1) * 2) {
+                    bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                    separators = Arrays.copyOf(separators, separators.length * 2);
+                }
+                bounds[labels * 2] = start;
+                bounds[labels * 2 + 1] = i;
+                labels++;
+
+                final int separator = separatorLength(message, i);
+                if (separator == 0 || i + separator >= length || !isLabelChar(message.charAt(i + separator))) {
+                    break;
+                }
+                separators[labels - 1] = message.charAt(i) == ',' ? COMMA : DOT;
+                i += separator;
+            }
+
+            if (labels >= 2) {
+                found |= hasForbiddenDomain(message, bounds, separators, labels, whitelist, spans);
+                // without spans to collect, the first forbidden domain or address is enough.
+                if (found && spans == null) {
+                    return true;
+                }
+                found |= hasForbiddenAddress(message, bounds, labels, whitelist, spans);
+                if (found && spans == null) {
+                    return true;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static boolean hasForbiddenDomain(@NotNull String message, int[] bounds, byte[] separators, int labels,
+                                              @NotNull AddressWhitelist whitelist, @Nullable CensorSpans spans) {
+        boolean found = false;
+        // commas never separate the labels of a domain, so they split the run in hosts.
+        int first = 0;
+        for (int last = 0; last < labels; last++) {
+            if (last == labels - 1 || separators[last] == COMMA) {
+                if (isDomain(message, bounds, first, last) && !whitelist.isDomainAllowed(host(message, bounds, first, last))) {
+                    if (spans == null) {
+                        return true;
+                    }
+                    spans.add(bounds[first * 2], bounds[last * 2 + 1]);
+                    found = true;
+                }
+                first = last + 1;
+            }
+        }
+        return found;
+    }
+
+    private static boolean isDomain(@NotNull String message, int[] bounds, int first, int last) {
+        for (int label = first; label < last; label++) {
+            if (bounds[label * 2 + 1] - bounds[label * 2] >= 3 && leadingLetters(message, bounds[(label + 1) * 2], bounds[(label + 1) * 2 + 1]) >= 2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasForbiddenAddress(@NotNull String message, int[] bounds, int labels,
+                                               @NotNull AddressWhitelist whitelist, @Nullable CensorSpans spans) {
+        boolean found = false;
+        int label = 0;
+        while (label + 3 < labels) {
+            final int firstEnd = bounds[label * 2 + 1];
+            final int lastStart = bounds[(label + 3) * 2];
+            final int lastEnd = bounds[(label + 3) * 2 + 1];
+            final int leading = Math.min(MAX_ADDRESS_PART, trailingDigits(message, bounds[label * 2], firstEnd));
+            final int trailing = Math.min(MAX_ADDRESS_PART, leadingDigits(message, lastStart, lastEnd));
+
+            if (leading > 0 && trailing > 0 && isAddressPart(message, bounds, label + 1) && isAddressPart(message, bounds, label + 2)) {
+                if (!whitelist.isAddressAllowed(address(message, bounds, label, leading, trailing))) {
+                    if (spans == null) {
+                        return true;
+                    }
+                    spans.add(firstEnd - leading, lastStart + trailing);
+                    found = true;
+                }
+                // what follows the fourth number may start the next address, like the regex resumed there.
+                final boolean resumes = lastEnd - lastStart > trailing && trailingDigits(message, lastStart, lastEnd) > 0;
+                label += resumes ? 3 : 4;
+            } else {
+                label++;
+            }
+        }
+        return found;
+    }
+
+    @NotNull
+    private static String host(@NotNull String message, int[] bounds, int first, int last) {
+        final StringBuilder host = new StringBuilder();
+        for (int label = first; label <= last; label++) {
+            if (label > first) {
+                host.append('.');
+            }
+            for (int i = bounds[label * 2]; i < bounds[label * 2 + 1]; i++) {
+                host.append(toLowerAscii(message.charAt(i)));
+            }
+        }
+        return host.toString();
+    }
+
+    @NotNull
+    private static String address(@NotNull String message, int[] bounds, int first, int leading, int trailing) {
+        final StringBuilder address = new StringBuilder(15);
+        final int firstEnd = bounds[first * 2 + 1];
+        address.append(message, firstEnd - leading, firstEnd);
+        for (int label = first + 1; label <= first + 2; label++) {
+            address.append('.').append(message, bounds[label * 2], bounds[label * 2 + 1]);
+        }
+        final int lastStart = bounds[(first + 3) * 2];
+        address.append('.').append(message, lastStart, lastStart + trailing);
+        return address.toString();
+    }
+
+    private static int separatorLength(@NotNull String message, int index) {
+        if (index >= message.length()) {
+            return 0;
+        }
+        final char c = message.charAt(index);
+        if (c == '.' || c == ',') {
+            return 1;
+        }
+        if (c == '[' && message.startsWith(".]", index + 1)) {
+            return 3;
+        }
+        return 0;
+    }
+
+    private static boolean isAddressPart(@NotNull String message, int[] bounds, int label) {
+        final int start = bounds[label * 2];
+        final int length = bounds[label * 2 + 1] - start;
+        return length <= MAX_ADDRESS_PART && leadingDigits(message, start, bounds[label * 2 + 1]) == length;
+    }
+
+    private static int leadingDigits(@NotNull String message, int start, int end) {
+        int digits = 0;
+        while (start + digits < end && isDigit(message.charAt(start + digits))) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private static int trailingDigits(@NotNull String message, int start, int end) {
+        int digits = 0;
+        while (end - digits > start && isDigit(message.charAt(end - digits - 1))) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private static int leadingLetters(@NotNull String message, int start, int end) {
+        int letters = 0;
+        while (start + letters < end && isAsciiLetter(message.charAt(start + letters))) {
+            letters++;
+        }
+        return letters;
+    }
+
+    private static boolean isLabelChar(char c) {
+        return isAsciiLetter(c) || isDigit(c) || c == '-';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
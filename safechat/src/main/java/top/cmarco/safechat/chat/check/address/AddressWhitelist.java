@@ -0,0 +1,119 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.address;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The whitelisted domains and IPv4 addresses, in hashed sets.
+ * A host is allowed if it is a whitelisted domain or one of its subdomains,
+ * so a lookup costs one hash per label of the host whatever the whitelist size.
+ * <p>
+ * Instances are immutable and can be shared between chat threads.
+ */
+public final class AddressWhitelist {
+
+    private static final AddressWhitelist EMPTY = new AddressWhitelist(Set.of(), Set.of());
+
+    private final Set<String> domains;
+    private final Set<String> addresses;
+
+    private AddressWhitelist(@NotNull Set<String> domains, @NotNull Set<String> addresses) {
+        this.domains = domains;
+        this.addresses = addresses;
+    }
+
+    @NotNull
+    public static AddressWhitelist compile(@NotNull List<String> domains, @NotNull List<String> addresses) {
+        if (domains.isEmpty() && addresses.isEmpty()) {
+            return EMPTY;
+        }
+
+        final Set<String> domainSet = new HashSet<>();
+        for (final String domain : domains) {
+            final String normalized = normalizeDomain(domain);
+            if (!normalized.isEmpty()) {
+                domainSet.add(normalized);
+            }
+        }
+
+        final Set<String> addressSet = new HashSet<>();
+        for (final String address : addresses) {
+            addressSet.add(address.trim().replace(',', '.'));
+        }
+        return new AddressWhitelist(Set.copyOf(domainSet), Set.copyOf(addressSet));
+    }
+
+    @NotNull
+    public static AddressWhitelist empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param domain A whitelisted domain as written in the configuration.
+     * @return The domain in lowercase, without wildcard prefix nor trailing dot.
+     */
+    @NotNull
+    static String normalizeDomain(@NotNull String domain) {
+        String normalized = domain.trim().toLowerCase(Locale.ROOT);
+        if (normalized.startsWith("*.")) {
+            normalized = normalized.substring(2);
+        } else if (normalized.startsWith(".")) {
+            normalized = normalized.substring(1);
+        }
+        if (normalized.endsWith(".")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    /**
+     * @param host A host in lowercase, its labels separated by dots.
+     * @return True if the host, or a domain it belongs to, is whitelisted.
+     */
+    public boolean isDomainAllowed(@NotNull String host) {
+        if (domains.isEmpty()) {
+            return false;
+        }
+        int from = 0;
+        while (true) {
+            if (domains.contains(from == 0 ? host : host.substring(from))) {
+                return true;
+            }
+            final int dot = host.indexOf('.', from);
+            if (dot < 0) {
+                return false;
+            }
+            from = dot + 1;
+        }
+    }
+
+    /**
+     * @param address An IPv4 address, its numbers separated by dots.
+     * @return True if the address is whitelisted.
+     */
+    public boolean isAddressAllowed(@NotNull String address) {
+        return addresses.contains(address);
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.blacklist;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import top.cmarco.safechat.api.checks.CensorSpans;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * An Aho-Corasick automaton compiled from the words blacklist.
+ * A message is scanned once, from left to right, and every blacklisted
+ * word ending at the current position is reported through the output links.
+ * <p>
+ * Matching follows the same rules of the previous exact-match path:
+ * a word is matched when it is equal (ignoring case) to a whitespace-separated
+ * token of the message, or when it is equal to the whole message.
+ * <p>
+ * Instances are immutable and can be shared between chat threads.
+ */
+public final class BlacklistAutomaton {
+
+    private static final int ROOT = 0;
+    private static final int NO_NODE = -1;
+    private static final BlacklistAutomaton EMPTY = new BlacklistAutomaton(new ArrayList<>());
+
+    private final String[] words;
+    private final int[] wordLengths;
+    private final boolean[] wordHasWhitespace;
+
+    // goto function, transitions are stored sorted by character for binary search.
+    private final char[][] transitionKeys;
+    private final int[][] transitionTargets;
+    private final int[] failure;
+    // index of the word ending in a node, or -1.
+    private final int[] output;
+    // closest node in the failure chain that has an output, or -1.
+    private final int[] outputLink;
+
+    private BlacklistAutomaton(@NotNull List<String> entries) {
+        final List<String> accepted = new ArrayList<>(entries.size());
+        for (final String entry : entries) {
+            if (entry != null && !entry.isEmpty()) {
+                accepted.add(entry);
+            }
+        }
+
+        this.words = accepted.toArray(new String[0]);
+        this.wordLengths = new int[words.length];
+        this.wordHasWhitespace = new boolean[words.length];
+
+        final List<char[]> keys = new ArrayList<>();
+        final List<int[]> targets = new ArrayList<>();
+        final List<Integer> outputs = new ArrayList<>();
+        keys.add(new char[0]);
+        targets.add(new int[0]);
+        outputs.add(NO_NODE);
+
+        for (int w = 0; w < words.length; w++) {
+            final String word = words[w];
+            final int length = word.length();
+            wordLengths[w] = length;
+
+            int node = ROOT;
+            for (int i = 0; i < length; i++) {
+                final char c = word.charAt(i);
+                if (isSplitWhitespace(c)) {
+                    wordHasWhitespace[w] = true;
+                }
+                final char folded = fold(c);
+                int next = findTransition(keys.get(node), targets.get(node), folded);
+                if (next == NO_NODE) {
+                    next = keys.size();
+                    keys.add(new char[0]);
+                    targets.add(new int[0]);
+                    outputs.add(NO_NODE);
+                    addTransition(keys, targets, node, folded, next);
+                }
+                node = next;
+            }
+
+            // duplicated entries keep the first occurrence.
+            if (outputs.get(node) == NO_NODE) {
+                outputs.set(node, w);
+            }
+        }
+
+        final int nodes = keys.size();
+        this.transitionKeys = keys.toArray(new char[0][]);
+        this.transitionTargets = targets.toArray(new int[0][]);
+        this.output = new int[nodes];
+        for (int i = 0; i < nodes; i++) {
+            output[i] = outputs.get(i);
+        }
+        this.failure = new int[nodes];
+        this.outputLink = new int[nodes];
+        Arrays.fill(outputLink, NO_NODE);
+        buildFailureLinks();
+    }
+
+    /**
+     * Compile a new automaton from the given blacklisted words.
+     * Null or empty entries are ignored.
+     *
+     * @param words The blacklisted words.
+     * @return The compiled automaton.
+     */
+    @NotNull
+    public static BlacklistAutomaton compile(@NotNull Collection<String> words) {
+        if (words.isEmpty()) {
+            return EMPTY;
+        }
+        return new BlacklistAutomaton(new ArrayList<>(words));
+    }
+
+    /**
+     * Get an automaton that never matches.
+     *
+     * @return The empty automaton.
+     */
+    @NotNull
+    public static BlacklistAutomaton empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Same whitespace definition used by {@code \s} in {@link java.util.regex.Pattern},
+     * and therefore by {@link top.cmarco.safechat.api.checks.ChatCheck#SPLIT_SPACE}.
+     *
+     * @param c The character.
+     * @return True if the character separates tokens.
+     */
+    public static boolean isSplitWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Fold a character so that two characters are equal after folding
+     * if and only if {@link String#equalsIgnoreCase(String)} considers them equal.
+     *
+     * @param c The character.
+     * @return The folded character.
+     */
+    public static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static int findTransition(char[] keys, int[] targets, char c) {
+        final int index = Arrays.binarySearch(keys, c);
+        return index >= 0 ? targets[index] : NO_NODE;
+    }
+
+    private static void addTransition(List<char[]> keys, List<int[]> targets, int node, char c, int target) {
+        final char[] oldKeys = keys.get(node);
+        final int[] oldTargets = targets.get(node);
+        final int insertion = -(Arrays.binarySearch(oldKeys, c) + 1);
+
+        final char[] newKeys = new char[oldKeys.length + 1];
+        final int[] newTargets = new int[oldTargets.length + 1];
+        System.arraycopy(oldKeys, 0, newKeys, 0, insertion);
+        System.arraycopy(oldTargets, 0, newTargets, 0, insertion);
+        newKeys[insertion] = c;
+        newTargets[insertion] = target;
+        System.arraycopy(oldKeys, insertion, newKeys, insertion + 1, oldKeys.length - insertion);
+        System.arraycopy(oldTargets, insertion, newTargets, insertion + 1, oldTargets.length - insertion);
+
+        keys.set(node, newKeys);
+        targets.set(node, newTargets);
+    }
+
+    private void buildFailureLinks() {
+        final Queue<Integer> queue = new ArrayDeque<>();
+        failure[ROOT] = ROOT;
+
+        for (final int child : transitionTargets[ROOT]) {
+            failure[child] = ROOT;
+            queue.add(child);
+        }
+
+        while (!queue.isEmpty()) {
+            final int node = queue.poll();
+            final char[] keys = transitionKeys[node];
+            final int[] targets = transitionTargets[node];
+
+            for (int i = 0; i < keys.length; i++) {
+                final char c = keys[i];
+                final int child = targets[i];
+
+                int fallback = failure[node];
+                int next;
+                while ((next = findTransition(transitionKeys[fallback], transitionTargets[fallback], c)) == NO_NODE && fallback != ROOT) {
+                    fallback = failure[fallback];
+                }
+                failure[child] = (next == NO_NODE || next == child) ? ROOT : next;
+
+                final int failureNode = failure[child];
+                outputLink[child] = output[failureNode] != NO_NODE ? failureNode : outputLink[failureNode];
+                queue.add(child);
+            }
+        }
+    }
+
+    private int step(int node, char c) {
+        int next;
+        while ((next = findTransition(transitionKeys[node], transitionTargets[node], c)) == NO_NODE && node != ROOT) {
+            node = failure[node];
+        }
+        return next == NO_NODE ? ROOT : next;
+    }
+
+    private boolean accepts(int word, int end, @NotNull CharSequence message) {
+        final int length = message.length();
+        final int start = end - wordLengths[word] + 1;
+
+        if (start == 0 && end == length - 1) {
+            return true;
+        }
+        if (wordHasWhitespace[word]) {
+            return false;
+        }
+
+        final boolean startsToken = start == 0 || isSplitWhitespace(message.charAt(start - 1));
+        final boolean endsToken = end == length - 1 || isSplitWhitespace(message.charAt(end + 1));
+        return startsToken && endsToken;
+    }
+
+    /**
+     * Scan the message in a single pass and find a blacklisted word.
+     *
+     * @param message The (already normalized) message.
+     * @return The first blacklisted word matched, or null if none matched.
+     */
+    @Nullable
+    public String findMatch(@NotNull CharSequence message) {
+        if (words.length == 0) {
+            return null;
+        }
+
+        final int length = message.length();
+        int node = ROOT;
+
+        for (int i = 0; i < length; i++) {
+            node = step(node, fold(message.charAt(i)));
+
+            int candidate = output[node] != NO_NODE ? node : outputLink[node];
+            while (candidate != NO_NODE) {
+                final int word = output[candidate];
+                if (accepts(word, i, message)) {
+                    return words[word];
+                }
+                candidate = outputLink[candidate];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Scan the message in a single pass and report every blacklisted word it contains.
+     *
+     * @param message The (already normalized) message.
+     * @param spans   Receives the span of every matched word.
+     * @return True if a blacklisted word matched.
+     */
+    public boolean findSpans(@NotNull CharSequence message, @NotNull CensorSpans spans) {
+        if (words.length == 0) {
+            return false;
+        }
+
+        final int length = message.length();
+        int node = ROOT;
+        boolean found = false;
+
+        for (int i = 0; i < length; i++) {
+            node = step(node, fold(message.charAt(i)));
+
+            int candidate = output[node] != NO_NODE ? node : outputLink[node];
+            while (candidate != NO_NODE) {
+                final int word = output[candidate];
+                if (accepts(word, i, message)) {
+                    spans.add(i - wordLengths[word] + 1, i + 1);
+                    found = true;
+                }
+                candidate = outputLink[candidate];
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Get the amount of words compiled into this automaton.
+     *
+     * @return The amount of words.
+     */
+    public int size() {
+        return words.length;
+    }
+}
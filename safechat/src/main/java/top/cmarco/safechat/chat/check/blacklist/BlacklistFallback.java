@@ -0,0 +1,206 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.blacklist;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import top.cmarco.safechat.api.checks.CensorSpans;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The obfuscation regexes used by the blacklist fallback.
+ * Every blacklisted word gets its own pattern, built once and cached by word,
+ * then all of them are merged into a single alternation so that a message
+ * is scanned by one matcher only.
+ * <p>
+ * Instances are immutable and can be shared between chat threads.
+ */
+public final class BlacklistFallback {
+
+    public static final int PATTERN_FLAGS = Pattern.MULTILINE | Pattern.COMMENTS | Pattern.CASE_INSENSITIVE;
+    private static final String SPECIAL_CHARACTERS = Pattern.quote("!@#$%^&*()_+-.'?;:");
+    private static final String GROUP_PREFIX = "w";
+    private static final BlacklistFallback EMPTY = new BlacklistFallback(Collections.emptyMap(), null);
+
+    private final Map<String, Pattern> patterns;
+    private final String[] groupWords;
+    private final Pattern merged;
+
+    private BlacklistFallback(@NotNull Map<String, Pattern> patterns, @Nullable Pattern merged) {
+        this.patterns = Collections.unmodifiableMap(patterns);
+        this.groupWords = patterns.keySet().toArray(new String[0]);
+        this.merged = merged;
+    }
+
+    /**
+     * Build the obfuscation regex of a single blacklisted word.
+     * Every character of the word may be repeated, and may be separated
+     * from the next one by spaces, special characters or color codes.
+     *
+     * @param word The blacklisted word.
+     * @return The regex, to be compiled with {@link #PATTERN_FLAGS}.
+     */
+    @NotNull
+    public static String buildRegex(@NotNull String word) {
+        StringBuilder stringBuilder = new StringBuilder();
+        int length = word.length();
+        for (String piece : word.split("")) {
+            --length;
+            if (piece.trim().isEmpty()) {
+                continue;
+            }
+            if (length <= 0) {
+                stringBuilder.append("(").append(piece).append("+|([").append(SPECIAL_CHARACTERS).append("]|((§|&)[0-9A-FK-OR]|(§|&)))+\\s*+").append(piece).append(")");
+            } else if (length == word.length() - 1) {
+                stringBuilder.append("(").append(piece).append("+\\s*+|").append(piece).append("+\\s*+([").append(SPECIAL_CHARACTERS).append("]+\\s*+|((§|&)[0-9A-FK-OR]|(§|&)))+\\s*+)");
+            } else {
+                stringBuilder.append("(").append(piece).append("+\\s*+|([").append(SPECIAL_CHARACTERS).append("]+\\s*+|((§|&)[0-9A-FK-OR]|(§|&)))+\\s*+").append(piece).append("+\\s*+)");
+            }
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Compile the fallback patterns of the given words.
+     * Words that produce an invalid regex are skipped and reported to the logger.
+     *
+     * @param words  The blacklisted words.
+     * @param logger The logger used to report invalid words.
+     * @return The compiled fallback.
+     */
+    @NotNull
+    public static BlacklistFallback compile(@NotNull Collection<String> words, @NotNull Logger logger) {
+        final Map<String, Pattern> patterns = new LinkedHashMap<>();
+
+        for (final String word : words) {
+            if (word == null || word.isEmpty() || patterns.containsKey(word)) {
+                continue;
+            }
+            final String regex = buildRegex(word);
+            if (regex.isEmpty()) {
+                continue;
+            }
+            try {
+                patterns.put(word, Pattern.compile(regex, PATTERN_FLAGS));
+            } catch (final PatternSyntaxException e) {
+                logger.warning(String.format("Blacklisted word \"%s\" cannot be used by the fallback: %s", word, e.getDescription()));
+            }
+        }
+
+        if (patterns.isEmpty()) {
+            return EMPTY;
+        }
+
+        final StringBuilder alternation = new StringBuilder();
+        int group = 0;
+        for (final Pattern pattern : patterns.values()) {
+            if (group != 0) {
+                alternation.append('|');
+            }
+            alternation.append("(?<").append(GROUP_PREFIX).append(group++).append('>').append(pattern.pattern()).append(')');
+        }
+
+        return new BlacklistFallback(patterns, Pattern.compile(alternation.toString(), PATTERN_FLAGS));
+    }
+
+    /**
+     * Get a fallback that never matches.
+     *
+     * @return The empty fallback.
+     */
+    @NotNull
+    public static BlacklistFallback empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Scan the message with the merged pattern.
+     *
+     * @param message The message.
+     * @return The blacklisted word whose pattern matched first, or null if none matched.
+     */
+    @Nullable
+    public String findMatch(@NotNull CharSequence message) {
+        if (merged == null) {
+            return null;
+        }
+
+        final Matcher matcher = merged.matcher(message);
+        if (!matcher.find()) {
+            return null;
+        }
+
+        for (int i = 0; i < groupWords.length; i++) {
+            if (matcher.start(GROUP_PREFIX + i) != -1) {
+                return groupWords[i];
+            }
+        }
+        return groupWords[0];
+    }
+
+    /**
+     * Scan the message with the merged pattern and report every match.
+     *
+     * @param message The message.
+     * @param spans   Receives the span of every match.
+     * @return True if a pattern matched.
+     */
+    public boolean findSpans(@NotNull CharSequence message, @NotNull CensorSpans spans) {
+        if (merged == null) {
+            return false;
+        }
+
+        final Matcher matcher = merged.matcher(message);
+        boolean found = false;
+        while (matcher.find()) {
+            spans.add(matcher.start(), matcher.end());
+            found = true;
+        }
+        return found;
+    }
+
+    /**
+     * Get the cached pattern of a blacklisted word.
+     *
+     * @param word The blacklisted word.
+     * @return The pattern, or null if the word is not blacklisted or has no valid pattern.
+     */
+    @Nullable
+    public Pattern getPattern(@NotNull String word) {
+        return patterns.get(word);
+    }
+
+    /**
+     * Get all the cached patterns, keyed by blacklisted word.
+     *
+     * @return An unmodifiable view of the patterns.
+     */
+    @NotNull
+    public Map<String, Pattern> getPatterns() {
+        return patterns;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.blacklist;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Everything that is precompiled from the words blacklist.
+ * A new instance is built every time the blacklist config is (re)loaded,
+ * and replaces the old one as a whole.
+ */
+public final class CompiledBlacklist {
+
+    private static final CompiledBlacklist EMPTY = new CompiledBlacklist(BlacklistAutomaton.empty(), BlacklistFallback.empty(), SimilarityIndex.empty());
+
+    private final BlacklistAutomaton automaton;
+    private final BlacklistFallback fallback;
+    private final SimilarityIndex similarityIndex;
+
+    private CompiledBlacklist(@NotNull BlacklistAutomaton automaton, @NotNull BlacklistFallback fallback, @NotNull SimilarityIndex similarityIndex) {
+        this.automaton = automaton;
+        this.fallback = fallback;
+        this.similarityIndex = similarityIndex;
+    }
+
+    @NotNull
+    public static CompiledBlacklist compile(@NotNull List<String> words, @NotNull Logger logger) {
+        if (words.isEmpty()) {
+            return EMPTY;
+        }
+        return new CompiledBlacklist(BlacklistAutomaton.compile(words), BlacklistFallback.compile(words, logger), SimilarityIndex.compile(words));
+    }
+
+    @NotNull
+    public static CompiledBlacklist empty() {
+        return EMPTY;
+    }
+
+    @NotNull
+    public BlacklistAutomaton getAutomaton() {
+        return automaton;
+    }
+
+    @NotNull
+    public BlacklistFallback getFallback() {
+        return fallback;
+    }
+
+    @NotNull
+    public SimilarityIndex getSimilarityIndex() {
+        return similarityIndex;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.blacklist;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An allocation-free Ratcliff/Obershelp similarity, giving the exact same
+ * results as {@link info.debatty.java.stringsimilarity.RatcliffObershelp}.
+ * The longest common substring is searched over index ranges instead of
+ * substrings, ties going to the leftmost one in both strings, and a bounded
+ * variant stops as soon as the threshold can no longer be reached.
+ */
+public final class RatcliffObershelpKernel {
+
+    private static final int INDEX_MASK = (1 << 21) - 1;
+
+    private RatcliffObershelpKernel() {
+        throw new UnsupportedOperationException("Kernel class cannot be instantiated.");
+    }
+
+    /**
+     * @param a The first string.
+     * @param b The second string.
+     * @return The similarity of the strings, 2 * matched characters / total length.
+     */
+    public static double similarity(@NotNull String a, @NotNull String b) {
+        if (a.equals(b)) {
+            return 1.0D;
+        }
+        return 2.0D * matched(a, 0, a.length(), b, 0, b.length()) / (a.length() + b.length());
+    }
+
+    /**
+     * Check whether the similarity of two strings reaches a threshold.
+     * This is equivalent to {@code similarity(a, b) >= threshold}.
+     *
+     * @param a         The first string.
+     * @param b         The second string.
+     * @param threshold The minimum similarity.
+     * @return True if the similarity is at least the threshold.
+     */
+    public static boolean isSimilar(@NotNull String a, @NotNull String b, double threshold) {
+        if (a.equals(b)) {
+            return 1.0D >= threshold;
+        }
+        final int total = a.length() + b.length();
+        final int[] matched = {0};
+        if (!bounded(a, 0, a.length(), b, 0, b.length(), matched, 0, total, threshold)) {
+            return false;
+        }
+        return 2.0D * matched[0] / total >= threshold;
+    }
+
+    /**
+     * @param total   The total length of both strings.
+     * @param matched An amount of matched characters.
+     * @param threshold The minimum similarity.
+     * @return Whether that amount of matched characters reaches the threshold.
+     */
+    static boolean reaches(int matched, int total, double threshold) {
+        return total == 0 || 2.0D * matched / total >= threshold;
+    }
+
+    private static int matched(@NotNull String a, int aFrom, int aTo, @NotNull String b, int bFrom, int bTo) {
+        if (aFrom >= aTo || bFrom >= bTo) {
+            return 0;
+        }
+
+        final long match = longestMatch(a, aFrom, aTo, b, bFrom, bTo);
+        final int length = (int) (match >>> 42);
+        final int aStart = (int) (match >>> 21) & INDEX_MASK;
+        final int bStart = (int) match & INDEX_MASK;
+
+        if (length == 0) {
+            return 0;
+        }
+        return length
+                + matched(a, aFrom, aStart, b, bFrom, bStart)
+                + matched(a, aStart + length, aTo, b, bStart + length, bTo);
+    }
+
+    /**
+     * Find the longest common substring of two ranges, the leftmost one in the first
+     * string and then its first occurrence in the second one, like the reference implementation.
+     *
+     * @return The length, the start in the first string and the start in the second one, packed by 21 bits.
+     */
+    private static long longestMatch(@NotNull String a, int aFrom, int aTo, @NotNull String b, int bFrom, int bTo) {
+        int length = 0;
+        int aStart = 0;
+        int bStart = 0;
+        for (int i = aFrom; i < aTo && aTo - i > length; i++) {
+            for (int j = bFrom; j < bTo - length; j++) {
+                int k = 0;
+                while (i + k < aTo && j + k < bTo && a.charAt(i + k) == b.charAt(j + k)) {
+                    k++;
+                }
+                if (k > length) {
+                    length = k;
+                    aStart = i;
+                    bStart = j;
+                }
+            }
+        }
+        return (long) length << 42 | (long) aStart << 21 | bStart;
+    }
+
+    /**
+     * Accumulate the matched characters of the ranges, giving up once even matching
+     * every remaining character could not reach the threshold.
+     *
+     * @param pending The characters that could still be matched outside of the ranges.
+     * @return False if the threshold cannot be reached anymore.
+     */
+    private static boolean bounded(@NotNull String a, int aFrom, int aTo, @NotNull String b, int bFrom, int bTo,
+                                   int[] matched, int pending, int total, double threshold) {
+        if (aFrom >= aTo || bFrom >= bTo) {
+            return true;
+        }
+        if (!reaches(matched[0] + pending + Math.min(aTo - aFrom, bTo - bFrom), total, threshold)) {
+            return false;
+        }
+
+        final long match = longestMatch(a, aFrom, aTo, b, bFrom, bTo);
+        final int length = (int) (match >>> 42);
+        final int aStart = (int) (match >>> 21) & INDEX_MASK;
+        final int bStart = (int) match & INDEX_MASK;
+
+        if (length == 0) {
+            return reaches(matched[0] + pending, total, threshold);
+        }
+        matched[0] += length;
+
+        final int right = Math.min(aTo - aStart - length, bTo - bStart - length);
+        return bounded(a, aFrom, aStart, b, bFrom, bStart, matched, pending + right, total, threshold)
+                && bounded(a, aStart + length, aTo, b, bStart + length, bTo, matched, pending, total, threshold);
+    }
+}
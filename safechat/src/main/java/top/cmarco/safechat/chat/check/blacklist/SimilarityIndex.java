@@ -0,0 +1,148 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.blacklist;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The blacklisted words indexed for the similarity matching.
+ * The Ratcliff/Obershelp similarity is 2 * matched / (length of both strings),
+ * and the matched characters can neither exceed the shorter length nor the
+ * characters both strings have in common, so the words are bucketed by length
+ * and carry their sorted characters: most of them are discarded with these
+ * bounds before the exact, early-exiting {@link RatcliffObershelpKernel} runs.
+ * <p>
+ * Instances are immutable and can be shared between chat threads.
+ */
+public final class SimilarityIndex {
+
+    private static final SimilarityIndex EMPTY = new SimilarityIndex(new Entry[0][]);
+
+    private final Entry[][] byLength;
+
+    private SimilarityIndex(@NotNull Entry[][] byLength) {
+        this.byLength = byLength;
+    }
+
+    @NotNull
+    public static SimilarityIndex compile(@NotNull List<String> words) {
+        if (words.isEmpty()) {
+            return EMPTY;
+        }
+
+        final List<List<Entry>> buckets = new ArrayList<>();
+        for (final String word : words) {
+            while (buckets.size() <= word.length()) {
+                buckets.add(new ArrayList<>());
+            }
+            buckets.get(word.length()).add(new Entry(word, sorted(word)));
+        }
+
+        final Entry[][] byLength = new Entry[buckets.size()][];
+        for (int i = 0; i < byLength.length; i++) {
+            byLength[i] = buckets.get(i).toArray(new Entry[0]);
+        }
+        return new SimilarityIndex(byLength);
+    }
+
+    @NotNull
+    public static SimilarityIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Check if a token is similar to any blacklisted word.
+     * This is equivalent to testing every word with
+     * {@code new RatcliffObershelp().similarity(token, word) >= threshold}.
+     *
+     * @param token     The token of the message.
+     * @param threshold The minimum similarity.
+     * @return True if a word is similar enough.
+     */
+    public boolean matches(@NotNull String token, double threshold) {
+        final int tokenLength = token.length();
+        char[] tokenChars = null;
+
+        for (int length = 0; length < byLength.length; length++) {
+            final Entry[] bucket = byLength[length];
+            if (bucket.length == 0
+                    || !RatcliffObershelpKernel.reaches(Math.min(tokenLength, length), tokenLength + length, threshold)) {
+                continue;
+            }
+
+            if (tokenChars == null) {
+                tokenChars = sorted(token);
+            }
+
+            for (final Entry entry : bucket) {
+                if (RatcliffObershelpKernel.reaches(common(tokenChars, entry.chars()), tokenLength + length, threshold)
+                        && RatcliffObershelpKernel.isSimilar(token, entry.word(), threshold)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The amount of indexed words.
+     */
+    public int size() {
+        int size = 0;
+        for (final Entry[] bucket : byLength) {
+            size += bucket.length;
+        }
+        return size;
+    }
+
+    @NotNull
+    private static char[] sorted(@NotNull String value) {
+        final char[] chars = value.toCharArray();
+        Arrays.sort(chars);
+        return chars;
+    }
+
+    /**
+     * @return The size of the multiset intersection of two sorted character arrays.
+     */
+    private static int common(char[] a, char[] b) {
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return common;
+    }
+
+    private record Entry(@NotNull String word, char[] chars) {
+    }
+}
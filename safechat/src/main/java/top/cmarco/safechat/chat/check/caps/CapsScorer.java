@@ -0,0 +1,151 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.caps;
+
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.api.checks.NormalizedMessage;
+import top.cmarco.safechat.chat.check.address.AddressScanner;
+import top.cmarco.safechat.chat.state.OnlineNames;
+
+import java.util.Locale;
+
+/**
+ * Scores the uppercase letters of a message, working on the string itself.
+ * <p>
+ * Only the letters a player chose to shout count: color codes, the names of
+ * online players and links are skipped, since a name like {@code xXSteveXx}
+ * or a link is not written in capitals by choice. Words holding a domain,
+ * like {@code SPIGOTMC.ORG/RESOURCES}, are links too.
+ * The score is packed in a long so that scoring a message allocates nothing.
+ */
+public final class CapsScorer {
+
+    private static final String COLOR_CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx";
+
+    private CapsScorer() {
+        throw new UnsupportedOperationException("Scorer class cannot be instantiated.");
+    }
+
+    /**
+     * Score a message.
+     *
+     * @param message The message.
+     * @param names   The online player names.
+     * @return The score, read with {@link #letters(long)} and {@link #uppercase(long)}.
+     */
+    public static long score(@NotNull String message, @NotNull OnlineNames names) {
+        final int length = message.length();
+        int letters = 0;
+        int uppercase = 0;
+
+        int start = 0;
+        while (start < length) {
+            final int end = tokenEnd(message, start);
+            if (end > start && !isSkipped(message, start, end, names)) {
+                for (int i = start; i < end; ) {
+                    final int codePoint = message.codePointAt(i);
+                    if (isColorCode(message, i, end)) {
+                        i += 2;
+                        continue;
+                    }
+                    if (Character.isLetter(codePoint)) {
+                        letters++;
+                        if (Character.isUpperCase(codePoint)) {
+                            uppercase++;
+                        }
+                    }
+                    i += Character.charCount(codePoint);
+                }
+            }
+            start = end + 1;
+        }
+        return ((long) uppercase << Integer.SIZE) | letters;
+    }
+
+    /**
+     * @param score A score returned by {@link #score(String, OnlineNames)}.
+     * @return The amount of scored letters.
+     */
+    public static int letters(long score) {
+        return (int) score;
+    }
+
+    /**
+     * @param score A score returned by {@link #score(String, OnlineNames)}.
+     * @return The amount of scored uppercase letters.
+     */
+    public static int uppercase(long score) {
+        return (int) (score >>> Integer.SIZE);
+    }
+
+    /**
+     * Lowercase the scored parts of a message, leaving names and links as they are.
+     *
+     * @param message The message.
+     * @param names   The online player names.
+     * @param locale  The locale of the player, so that e.g. Turkish capitals are lowercased correctly.
+     * @return The rewritten message.
+     */
+    @NotNull
+    public static String lowercase(@NotNull String message, @NotNull OnlineNames names, @NotNull Locale locale) {
+        final int length = message.length();
+        final StringBuilder result = new StringBuilder(length);
+
+        int start = 0;
+        while (start < length) {
+            final int end = tokenEnd(message, start);
+            final String token = message.substring(start, end);
+            result.append(isSkipped(message, start, end, names) ? token : token.toLowerCase(locale));
+            if (end < length) {
+                result.append(message.charAt(end));
+            }
+            start = end + 1;
+        }
+        return result.toString();
+    }
+
+    private static int tokenEnd(@NotNull String message, int start) {
+        int end = start;
+        while (end < message.length() && !NormalizedMessage.isSplitSpace(message.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isSkipped(@NotNull String message, int start, int end, @NotNull OnlineNames names) {
+        return isLink(message, start, end) || names.contains(message, start, end);
+    }
+
+    private static boolean isLink(@NotNull String message, int start, int end) {
+        if (message.regionMatches(true, start, "www.", 0, 4)) {
+            return true;
+        }
+        for (int i = start + 1; i + 3 <= end; i++) {
+            if (message.startsWith("://", i)) {
+                return true;
+            }
+        }
+        return AddressScanner.containsDomain(message, start, end);
+    }
+
+    private static boolean isColorCode(@NotNull String message, int index, int end) {
+        final char c = message.charAt(index);
+        return (c == NormalizedMessage.COLOR_CHAR || c == '&') && index + 1 < end && COLOR_CODES.indexOf(message.charAt(index + 1)) >= 0;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.repetition;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Detects the same message being posted by many players in a short time,
+ * like a wave of bots advertising a link. The hashes of the recently
+ * accepted messages are kept in a bounded ring shared by every player.
+ */
+public final class CrossPlayerDuplicates {
+
+    private final long[] times;
+    private final long[] hashes;
+    private final UUID[] players;
+    private int head;
+
+    /**
+     * @param capacity The amount of recent messages remembered.
+     */
+    public CrossPlayerDuplicates(int capacity) {
+        this.times = new long[capacity];
+        this.hashes = new long[capacity];
+        this.players = new UUID[capacity];
+    }
+
+    /**
+     * Count the other players that posted a message within a window,
+     * stopping at a limit.
+     *
+     * @param hash   The hash of the message.
+     * @param player The player posting it.
+     * @param now    The current epoch millis.
+     * @param window The window in millis.
+     * @param limit  The count after which counting can stop.
+     * @return The amount of other players, at most {@code limit}.
+     */
+    public synchronized int countOthers(long hash, @NotNull UUID player, long now, long window, int limit) {
+        final UUID[] seen = new UUID[limit];
+        int count = 0;
+        for (int i = 0; i < times.length && count < limit; i++) {
+            final UUID other = players[i];
+            if (other == null || hashes[i] != hash || now - times[i] > window || other.equals(player) || contains(seen, count, other)) {
+                continue;
+            }
+            seen[count++] = other;
+        }
+        return count;
+    }
+
+    /**
+     * Remember an accepted message.
+     *
+     * @param hash   The hash of the message.
+     * @param player The player that posted it.
+     * @param now    The current epoch millis.
+     */
+    public synchronized void record(long hash, @NotNull UUID player, long now) {
+        times[head] = now;
+        hashes[head] = hash;
+        players[head] = player;
+        head = (head + 1) % times.length;
+    }
+
+    private static boolean contains(@NotNull UUID[] seen, int count, @NotNull UUID player) {
+        for (int i = 0; i < count; i++) {
+            if (seen[i].equals(player)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.repetition;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 64-bit fingerprints of chat messages.
+ * The SimHash of two messages sharing most of their character trigrams only
+ * differs in a few bits, so near-duplicates are found by comparing a single
+ * long with {@link Long#bitCount(long)} instead of the messages themselves.
+ */
+public final class Fingerprints {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int SHINGLE = 3;
+
+    private Fingerprints() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated.");
+    }
+
+    /**
+     * Compute the SimHash of the character trigrams of a text.
+     * Texts shorter than a trigram are hashed as a whole.
+     *
+     * @param text The text, usually lowercased.
+     * @return The fingerprint.
+     */
+    public static long simHash(@NotNull CharSequence text) {
+        final int length = text.length();
+        if (length <= SHINGLE) {
+            return hash(text, 0, length);
+        }
+
+        final int[] weights = new int[Long.SIZE];
+        for (int i = 0; i + SHINGLE <= length; i++) {
+            final long feature = hash(text, i, i + SHINGLE);
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                weights[bit] += ((feature >>> bit) & 1L) == 0L ? -1 : 1;
+            }
+        }
+
+        long fingerprint = 0L;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @param a A fingerprint.
+     * @param b Another fingerprint.
+     * @return The amount of differing bits.
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * A well-mixed 64-bit hash of a range of characters, FNV-1a followed by the MurmurHash3 finalizer.
+     *
+     * @param text The text.
+     * @param from The first index, inclusive.
+     * @param to   The last index, exclusive.
+     * @return The hash.
+     */
+    public static long hash(@NotNull CharSequence text, int from, int to) {
+        long hash = FNV_OFFSET;
+        for (int i = from; i < to; i++) {
+            hash ^= text.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
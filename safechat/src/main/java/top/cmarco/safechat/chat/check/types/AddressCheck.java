@@ -19,40 +19,30 @@
 package top.cmarco.safechat.chat.check.types;
 
 import org.jetbrains.annotations.NotNull;
-import org.tomlj.TomlArray;
 import top.cmarco.safechat.SafeChat;
-import top.cmarco.safechat.SafeChatUtils;
 import top.cmarco.safechat.api.checks.*;
-import top.cmarco.safechat.config.address.AddressConfig;
-import top.cmarco.safechat.config.address.AddressSection;
-import top.cmarco.safechat.config.checks.CheckConfig;
-import top.cmarco.safechat.config.checks.CheckSections;
-import top.cmarco.safechat.config.messages.MessagesConfig;
-import top.cmarco.safechat.config.messages.MessagesSection;
+import top.cmarco.safechat.chat.check.address.AddressScanner;
+import top.cmarco.safechat.config.settings.AddressSettings;
+import top.cmarco.safechat.config.settings.SettingsProvider;
 
 import java.util.List;
-import java.util.Locale;
 import java.util.Objects;
-import java.util.regex.Matcher;
 
 
 @SuppressWarnings("unused")
 @CheckName(name = "Address")
 @CheckPermission(permission = "safechat.bypass.address")
 @CheckPriority(priority = CheckPriority.Priority.LOW)
+@StatelessCheck
 public final class AddressCheck extends ChatCheck {
 
     public static final byte MINIMUM_DOMAIN_CHARS = 6;
     public static final byte MINIMUM_ADDRESS_CHARS = 7;
 
-    private final AddressConfig addressConfig;
-    private final CheckConfig checkConfig;
-    private final MessagesConfig messagesConfig;
+    private final SettingsProvider settingsProvider;
 
-    public AddressCheck(@NotNull AddressConfig addressConfig, @NotNull CheckConfig checkConfig, @NotNull MessagesConfig messagesConfig) {
-        this.checkConfig = Objects.requireNonNull(checkConfig);
-        this.messagesConfig = Objects.requireNonNull(messagesConfig);
-        this.addressConfig = Objects.requireNonNull(addressConfig);
+    public AddressCheck(@NotNull SettingsProvider settingsProvider) {
+        this.settingsProvider = Objects.requireNonNull(settingsProvider);
     }
 
     /**
@@ -66,68 +56,34 @@ public final class AddressCheck extends ChatCheck {
      */
     @Override
     public boolean check(@NotNull ChatData data) {
-        boolean enabled = Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ENABLE_ADDRESS_CHECK));
-
-        if (!enabled) {
-            return false;
-        }
+        return evaluate(data).isFailed();
+    }
 
-        String s = data.getMessage();
+    /**
+     * Block the message, or mask every forbidden domain and address when censoring is enabled.
+     *
+     * @param data The chat data.
+     * @return The verdict.
+     */
+    @Override
+    public @NotNull CheckVerdict evaluate(@NotNull ChatData data) {
+        final AddressSettings settings = settingsProvider.getSettings().address();
 
-        if (s.isEmpty()) {
-            return false;
+        if (!settings.check().enabled()) {
+            return CheckVerdict.pass();
         }
 
-
-        String[] ss;
-
-        if (s.length() >= MINIMUM_DOMAIN_CHARS) {
-            ss = SPLIT_SPACE.split(s);
-            TomlArray allowedDomains = addressConfig.getConfigValue(AddressSection.ALLOWED_DOMAINS);
-
-            for (final String sk : ss) {
-                if (sk.length() >= MINIMUM_DOMAIN_CHARS) {
-                    Matcher match = DOMAIN_REGEX.matcher(sk);
-
-                    whileLabel:
-                    while (match.find()) {
-                        final String gg = match.group().toLowerCase(Locale.ROOT);
-                        for (int i = 0; i < Objects.requireNonNull(allowedDomains).size(); i++) {
-                            final boolean matched = gg.contains(allowedDomains.getString(i));
-                            if (matched) {
-                                continue whileLabel;
-                            }
-                        }
-                        return true;
-                    }
-                }
-            }
+        final String message = data.getMessage();
+        if (message.length() < MINIMUM_DOMAIN_CHARS) {
+            return CheckVerdict.pass();
         }
 
-        if (s.length() >= MINIMUM_ADDRESS_CHARS) {
-            ss = SPLIT_SPACE.split(s);
-            TomlArray allowedIpv4s = addressConfig.getConfigValue(AddressSection.ALLOWED_ADDRESSES);
-
-            for (final String sk : ss) {
-                if (sk.length() >= MINIMUM_ADDRESS_CHARS) {
-                    Matcher match = IPV4_REGEX.matcher(sk);
-                    whileLabel:
-                    while (match.find()) {
-                        final String gg = match.group();
-                        for (int i = 0; i < Objects.requireNonNull(allowedIpv4s).size(); i++) {
-                            final boolean matched = gg.equals(allowedIpv4s.getString(i));
-                            if (matched) {
-                                continue whileLabel;
-                            }
-                        }
-
-                        return true;
-                    }
-                }
-            }
+        if (settings.censor()) {
+            final CensorSpans spans = new CensorSpans();
+            AddressScanner.findForbidden(message, settings.whitelist(), spans);
+            return CheckVerdict.censor(spans);
         }
-
-        return false;
+        return AddressScanner.containsForbidden(message, settings.whitelist()) ? CheckVerdict.block() : CheckVerdict.pass();
     }
 
     /**
@@ -138,7 +94,7 @@ public final class AddressCheck extends ChatCheck {
      */
     @Override
     public boolean hasWarningEnabled() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ENABLE_ADDRESS_WARNING));
+        return settingsProvider.getSettings().address().check().warningEnabled();
     }
 
     /**
@@ -149,8 +105,7 @@ public final class AddressCheck extends ChatCheck {
      */
     @Override
     public @NotNull List<String> getWarningMessages() {
-        TomlArray tomlArray = Objects.requireNonNull(messagesConfig.getConfigValue(MessagesSection.ADDRESS_WARNING));
-        return SafeChatUtils.getStrings(tomlArray);
+        return settingsProvider.getSettings().address().check().warningMessages();
     }
 
     /**
@@ -176,7 +131,7 @@ public final class AddressCheck extends ChatCheck {
      */
     @Override
     public long getPunishmentRequiredValue() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ADDRESS_PUNISH_AFTER));
+        return settingsProvider.getSettings().address().check().punishAfter();
     }
 
     /**
@@ -187,7 +142,7 @@ public final class AddressCheck extends ChatCheck {
      */
     @Override
     public @NotNull String getPunishmentCommand() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ADDRESS_PUNISH_COMMAND));
+        return settingsProvider.getSettings().address().check().punishCommand();
     }
 
 
@@ -199,6 +154,6 @@ public final class AddressCheck extends ChatCheck {
      */
     @Override
     public boolean getLoggingEnabled() {
-        return checkConfig.getConfigValue(CheckSections.ENABLE_ADDRESS_LOGGING, Boolean.class);
+        return settingsProvider.getSettings().address().check().loggingEnabled();
     }
 }
@@ -21,53 +21,71 @@ package top.cmarco.safechat.chat.check.types;
 import org.jetbrains.annotations.NotNull;
 import top.cmarco.safechat.SafeChat;
 import top.cmarco.safechat.api.checks.*;
-import top.cmarco.safechat.config.messages.MessagesConfig;
-import top.cmarco.safechat.SafeChatUtils;
-import top.cmarco.safechat.config.checks.CheckConfig;
-import top.cmarco.safechat.config.checks.CheckSections;
-import top.cmarco.safechat.config.messages.MessagesSection;
+import top.cmarco.safechat.chat.check.caps.CapsScorer;
+import top.cmarco.safechat.chat.state.OnlineNames;
+import top.cmarco.safechat.config.settings.CapsSettings;
+import top.cmarco.safechat.config.settings.SettingsProvider;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 
 @CheckName(name = "Caps")
 @CheckPermission(permission = "safechat.bypass.caps")
 @CheckPriority(priority = CheckPriority.Priority.LOW)
+@StatelessCheck
 public final class CapsCheck extends ChatCheck {
 
-    private final CheckConfig checkConfig;
-    private final MessagesConfig messagesConfig;
+    private final SettingsProvider settingsProvider;
+    private final OnlineNames onlineNames;
 
-    public CapsCheck(@NotNull CheckConfig checkConfig, @NotNull MessagesConfig messagesConfig) {
-        this.checkConfig = checkConfig;
-        this.messagesConfig = messagesConfig;
+    public CapsCheck(@NotNull SettingsProvider settingsProvider, @NotNull OnlineNames onlineNames) {
+        this.settingsProvider = Objects.requireNonNull(settingsProvider);
+        this.onlineNames = Objects.requireNonNull(onlineNames);
     }
 
     @Override
     public boolean check(@NotNull ChatData data) {
-        boolean enabled = Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ENABLE_CAPS_CHECK));
-
-        if (!enabled) {
-            return false;
-        }
+        return evaluate(data).isFailed();
+    }
 
+    /**
+     * Block a shouted message, or lowercase it when the rewrite is enabled.
+     *
+     * @param data The chat data.
+     * @return The verdict.
+     */
+    @Override
+    public @NotNull CheckVerdict evaluate(@NotNull ChatData data) {
+        final CapsSettings settings = settingsProvider.getSettings().caps();
 
-        Long capsLimit = checkConfig.getConfigValue(CheckSections.CAPS_UPPERCASE_CHARACTERS_LIMIT);
+        if (!settings.check().enabled() || !isShouted(settings, data)) {
+            return CheckVerdict.pass();
+        }
 
-        if (capsLimit == null) {
-            capsLimit = 8L;
+        if (settings.lowercaseRewrite()) {
+            final Locale locale = playerLocale(data);
+            return CheckVerdict.rewrite(message -> CapsScorer.lowercase(message, onlineNames, locale));
         }
+        return CheckVerdict.block();
+    }
 
-        short uppercaseCounter = 0;
-        for (final char c : data.getMessage().toCharArray()) {
-            if (Character.isUpperCase(c)) {
-                uppercaseCounter++;
-            }
+    private boolean isShouted(@NotNull CapsSettings settings, @NotNull ChatData data) {
+        if (settings.uppercaseRatio() <= 0.0D) {
+            return data.getNormalized().getUppercaseCount() >= settings.uppercaseLimit();
         }
 
+        final long score = CapsScorer.score(data.getMessage(), onlineNames);
+        final int letters = CapsScorer.letters(score);
+        return letters >= settings.minimumLetters() && letters > 0
+                && CapsScorer.uppercase(score) >= settings.uppercaseRatio() * letters;
+    }
 
-        return uppercaseCounter >= capsLimit;
+    @NotNull
+    private static Locale playerLocale(@NotNull ChatData data) {
+        final String locale = data.getPlayer().getLocale();
+        return locale == null || locale.isEmpty() ? Locale.ROOT : Locale.forLanguageTag(locale.replace('_', '-'));
     }
 
     /**
@@ -78,7 +96,7 @@ public final class CapsCheck extends ChatCheck {
      */
     @Override
     public boolean hasWarningEnabled() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ENABLE_CAPS_WARNING));
+        return settingsProvider.getSettings().caps().check().warningEnabled();
     }
 
     /**
@@ -89,7 +107,7 @@ public final class CapsCheck extends ChatCheck {
      */
     @Override
     public @NotNull List<String> getWarningMessages() {
-        return SafeChatUtils.getStrings(Objects.requireNonNull(messagesConfig.getConfigValue(MessagesSection.CAPS_WARNING)));
+        return settingsProvider.getSettings().caps().check().warningMessages();
     }
 
     /**
@@ -116,7 +134,7 @@ public final class CapsCheck extends ChatCheck {
      */
     @Override
     public long getPunishmentRequiredValue() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.CAPS_PUNISH_AFTER));
+        return settingsProvider.getSettings().caps().check().punishAfter();
     }
 
 
@@ -128,7 +146,7 @@ public final class CapsCheck extends ChatCheck {
      */
     @Override
     public @NotNull String getPunishmentCommand() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.CAPS_PUNISH_COMMAND));
+        return settingsProvider.getSettings().caps().check().punishCommand();
     }
 
 
@@ -140,6 +158,6 @@ public final class CapsCheck extends ChatCheck {
      */
     @Override
     public boolean getLoggingEnabled() {
-        return checkConfig.getConfigValue(CheckSections.ENABLE_CAPS_LOGGING, Boolean.class);
+        return settingsProvider.getSettings().caps().check().loggingEnabled();
     }
 }
@@ -20,20 +20,16 @@ package top.cmarco.safechat.chat.check.types;
 
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
-import org.tomlj.TomlArray;
 import top.cmarco.safechat.SafeChat;
 import top.cmarco.safechat.api.checks.*;
-import top.cmarco.safechat.config.checks.CheckConfig;
-import top.cmarco.safechat.config.messages.MessagesConfig;
-import top.cmarco.safechat.SafeChatUtils;
-import top.cmarco.safechat.config.checks.CheckSections;
-import top.cmarco.safechat.config.messages.MessagesSection;
+import top.cmarco.safechat.chat.state.PlayerChatState;
+import top.cmarco.safechat.chat.state.PlayerStateStore;
+import top.cmarco.safechat.chat.state.SlidingWindowLimiter;
+import top.cmarco.safechat.config.settings.FloodSettings;
+import top.cmarco.safechat.config.settings.SettingsProvider;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
 
 @CheckName(name = "Flood")
 @CheckPermission(permission = "safechat.bypass.flood")
@@ -42,13 +38,13 @@ public final class FloodCheck extends ChatCheck {
 
     private static final String TIME_PLACEHOLDER = "{TIME}";
 
-    private final Map<UUID, Long> lastWriteMap = new HashMap<>();
-    private final CheckConfig checkConfig;
-    private final MessagesConfig messagesConfig;
+    private final SettingsProvider settingsProvider;
+    private final PlayerStateStore stateStore;
+    private final SlidingWindowLimiter globalLimiter = new SlidingWindowLimiter();
 
-    public FloodCheck(@NotNull CheckConfig checkConfig, @NotNull MessagesConfig messagesConfig) {
-        this.checkConfig = Objects.requireNonNull(checkConfig);
-        this.messagesConfig = Objects.requireNonNull(messagesConfig);
+    public FloodCheck(@NotNull SettingsProvider settingsProvider, @NotNull PlayerStateStore stateStore) {
+        this.settingsProvider = Objects.requireNonNull(settingsProvider);
+        this.stateStore = Objects.requireNonNull(stateStore);
     }
 
     /**
@@ -62,28 +58,39 @@ public final class FloodCheck extends ChatCheck {
      */
     @Override
     public boolean check(@NotNull ChatData data) {
-        boolean enabled = Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ENABLE_FLOOD_CHECK));
+        return evaluate(data).isFailed();
+    }
+
+    /**
+     * Block the message if the player is over their own limits, or refuse it without
+     * failing the player if the whole server is over the global limit: the player who
+     * happens to send the refused message is not the one flooding.
+     *
+     * @param data The chat data.
+     * @return The verdict.
+     */
+    @Override
+    public @NotNull CheckVerdict evaluate(@NotNull ChatData data) {
+        final FloodSettings settings = settingsProvider.getSettings().flood();
+
+        if (!settings.check().enabled()) {
+            return CheckVerdict.pass();
+        }
+
+        SlidingWindowLimiter limiter = stateStore.get(data.getPlayer().getUniqueId()).getRateLimiter();
+        long now = data.getSentAt();
 
-        if (!enabled) {
-            return false;
+        if (limiter.tryAcquire(now, settings.requiredDelay(), settings.burstSize(), settings.burstWindow()) != SlidingWindowLimiter.ACCEPTED) {
+            return CheckVerdict.block();
         }
 
-        UUID uuid = data.getPlayer().getUniqueId();
-        double delaySeconds = ((Number) Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.FLOOD_REQUIRED_DELAY))).doubleValue();
-
-        if (lastWriteMap.containsKey(uuid)) {
-
-            long lastTime = lastWriteMap.get(uuid);
-            if (System.currentTimeMillis() - lastTime >= delaySeconds * 1000f) {
-                lastWriteMap.put(uuid, System.currentTimeMillis());
-                return false;
-            } else {
-                return true;
-            }
-        } else {
-            lastWriteMap.put(uuid, System.currentTimeMillis());
-            return false;
+        if (settings.globalLimit() > 0
+                && globalLimiter.tryAcquire(now, 0L, settings.globalLimit(), settings.globalWindow()) != SlidingWindowLimiter.ACCEPTED) {
+            // the refused message must not count against the player's own limits.
+            limiter.release(now);
+            return CheckVerdict.refuse();
         }
+        return CheckVerdict.pass();
     }
 
     /**
@@ -94,7 +101,7 @@ public final class FloodCheck extends ChatCheck {
      */
     @Override
     public boolean hasWarningEnabled() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ENABLE_FLOOD_WARNING));
+        return settingsProvider.getSettings().flood().check().warningEnabled();
     }
 
     /**
@@ -105,8 +112,7 @@ public final class FloodCheck extends ChatCheck {
      */
     @Override
     public @NotNull List<String> getWarningMessages() {
-        TomlArray tomlArray = Objects.requireNonNull(messagesConfig.getConfigValue(MessagesSection.FLOOD_WARNING));
-        return SafeChatUtils.getStrings(tomlArray);
+        return settingsProvider.getSettings().flood().check().warningMessages();
     }
 
     /**
@@ -120,11 +126,12 @@ public final class FloodCheck extends ChatCheck {
     @Override
     public @NotNull String replacePlaceholders(@NotNull String message, @NotNull ChatData data) {
         Player player = data.getPlayer();
-        double delay = Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.FLOOD_REQUIRED_DELAY));
-        double missingTime = delay - ((System.currentTimeMillis() - lastWriteMap.getOrDefault(player.getUniqueId(), System.currentTimeMillis())) / 1000f);
+        PlayerChatState state = stateStore.peek(player.getUniqueId());
+        // the retry time was computed when the message was refused, so it matches the decision.
+        long missingMillis = state == null ? 0L : Math.max(0L, state.getRateLimiter().getRetryAt() - data.getSentAt());
         return message.replace(PLAYER_PLACEHOLDER, player.getName())
                 .replace(PREFIX_PLACEHOLDER, SafeChat.getLocale().getString("prefix"))
-                .replace(TIME_PLACEHOLDER, String.format("%.1fs", missingTime));
+                .replace(TIME_PLACEHOLDER, String.format("%.1fs", missingMillis / 1000.0D));
     }
 
     /**
@@ -136,7 +143,7 @@ public final class FloodCheck extends ChatCheck {
      */
     @Override
     public long getPunishmentRequiredValue() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.FLOOD_PUNISH_AFTER));
+        return settingsProvider.getSettings().flood().check().punishAfter();
     }
 
     /**
@@ -147,7 +154,7 @@ public final class FloodCheck extends ChatCheck {
      */
     @Override
     public @NotNull String getPunishmentCommand() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.FLOOD_PUNISH_COMMAND));
+        return settingsProvider.getSettings().flood().check().punishCommand();
     }
 
     /**
@@ -158,6 +165,6 @@ public final class FloodCheck extends ChatCheck {
      */
     @Override
     public boolean getLoggingEnabled() {
-        return checkConfig.getConfigValue(CheckSections.ENABLE_FLOOD_LOGGING, Boolean.class);
+        return settingsProvider.getSettings().flood().check().loggingEnabled();
     }
 }
@@ -18,20 +18,19 @@
 
 package top.cmarco.safechat.chat.check.types;
 
-import info.debatty.java.stringsimilarity.RatcliffObershelp;
 import org.jetbrains.annotations.NotNull;
-import org.tomlj.TomlArray;
+import org.jetbrains.annotations.Nullable;
 import top.cmarco.safechat.SafeChat;
-import top.cmarco.safechat.SafeChatUtils;
 import top.cmarco.safechat.api.checks.*;
-import top.cmarco.safechat.config.checks.CheckConfig;
-import top.cmarco.safechat.config.checks.CheckSections;
-import top.cmarco.safechat.config.messages.MessagesConfig;
-import top.cmarco.safechat.config.messages.MessagesSection;
+import top.cmarco.safechat.chat.check.blacklist.RatcliffObershelpKernel;
+import top.cmarco.safechat.chat.check.repetition.CrossPlayerDuplicates;
+import top.cmarco.safechat.chat.check.repetition.Fingerprints;
+import top.cmarco.safechat.chat.state.PlayerStateStore;
+import top.cmarco.safechat.config.settings.RepetitionSettings;
+import top.cmarco.safechat.config.settings.SettingsProvider;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -41,14 +40,15 @@ import java.util.UUID;
 @CheckPriority(priority = CheckPriority.Priority.HIGH)
 public final class RepetitionCheck extends ChatCheck {
 
-    private final RatcliffObershelp ratcliffObershelp = new RatcliffObershelp();
-    private final Map<UUID, String> lastMessageMap = new HashMap<>();
-    private final CheckConfig checkConfig;
-    private final MessagesConfig messagesConfig;
+    private static final int CROSS_PLAYER_CAPACITY = 512;
 
-    public RepetitionCheck(@NotNull CheckConfig checkConfig, @NotNull MessagesConfig messagesConfig) {
-        this.checkConfig = Objects.requireNonNull(checkConfig);
-        this.messagesConfig = Objects.requireNonNull(messagesConfig);
+    private final CrossPlayerDuplicates crossPlayerDuplicates = new CrossPlayerDuplicates(CROSS_PLAYER_CAPACITY);
+    private final SettingsProvider settingsProvider;
+    private final PlayerStateStore stateStore;
+
+    public RepetitionCheck(@NotNull SettingsProvider settingsProvider, @NotNull PlayerStateStore stateStore) {
+        this.settingsProvider = Objects.requireNonNull(settingsProvider);
+        this.stateStore = Objects.requireNonNull(stateStore);
     }
 
     /**
@@ -62,37 +62,60 @@ public final class RepetitionCheck extends ChatCheck {
      */
     @Override
     public boolean check(@NotNull ChatData data) {
-        boolean enabled = Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ENABLE_REPETITION_CHECK));
+        final RepetitionSettings settings = settingsProvider.getSettings().repetition();
 
-        if (!enabled) {
+        if (!settings.check().enabled()) {
             return false;
         }
 
         UUID uuid = data.getPlayer().getUniqueId();
         String message = data.getMessage();
-        if (lastMessageMap.containsKey(uuid)) {
-            String lastMessage = lastMessageMap.get(uuid);
-            boolean allowSimilarity = Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.REPETITION_ALLOW_SIMILARITY));
-            if (!allowSimilarity) {
-                double compare = ratcliffObershelp.similarity(lastMessage, message);
-                double factor = ((Number) Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.REPETITION_MAXIMUM_SIMILARITY))).doubleValue();
-                if (compare >= factor) {
-                    return true;
-                } else {
-                    lastMessageMap.put(uuid, message);
-                }
-            } else {
-                if (message.equalsIgnoreCase(lastMessage)) {
-                    return true;
-                } else {
-                    lastMessageMap.put(uuid, message);
-                }
-            }
-        } else {
-            lastMessageMap.put(uuid, message);
+        long now = data.getSentAt();
+        long fingerprint = Fingerprints.simHash(message.toLowerCase(Locale.ROOT));
+
+        // a message is only remembered, by the history and across players, once it passed both.
+        String crossPlayerKey = crossPlayerKey(settings, data);
+        long crossPlayerHash = crossPlayerKey == null ? 0L : Fingerprints.hash(crossPlayerKey, 0, crossPlayerKey.length());
+        if (crossPlayerKey != null && crossPlayerDuplicates.countOthers(crossPlayerHash, uuid, now,
+                settings.crossPlayerWindow(), settings.crossPlayerLimit()) >= settings.crossPlayerLimit()) {
+            return true;
         }
 
-        return false;
+        boolean repeated = stateStore.get(uuid).getMessageHistory().checkAndAdd(message, fingerprint, now,
+                settings.historySize(), settings.historyExpiration(),
+                (previous, previousFingerprint, latest) -> isRepeated(settings, previous, previousFingerprint, latest, message, fingerprint));
+
+        if (!repeated && crossPlayerKey != null) {
+            crossPlayerDuplicates.record(crossPlayerHash, uuid, now);
+        }
+        return repeated;
+    }
+
+    /**
+     * The latest message is always compared exactly, like it always was, while older
+     * messages are only compared when their fingerprints are close enough: comparing
+     * the fingerprint is constant time, so the whole history costs little more than
+     * the latest message.
+     */
+    private static boolean isRepeated(@NotNull RepetitionSettings settings, @NotNull String previous, long previousFingerprint,
+                                      boolean latest, @NotNull String message, long fingerprint) {
+        if (settings.allowSimilarity()) {
+            return (latest || previousFingerprint == fingerprint) && message.equalsIgnoreCase(previous);
+        }
+        return (latest || Fingerprints.distance(previousFingerprint, fingerprint) <= settings.fingerprintDistance())
+                && RatcliffObershelpKernel.isSimilar(previous, message, settings.maximumSimilarity());
+    }
+
+    /**
+     * @return The text compared across players, or null if the message is not compared.
+     */
+    @Nullable
+    private static String crossPlayerKey(@NotNull RepetitionSettings settings, @NotNull ChatData data) {
+        final String stripped = data.getNormalized().getStripped();
+        if (settings.crossPlayerLimit() <= 0 || stripped.length() < settings.crossPlayerMinLength()) {
+            return null;
+        }
+        return stripped.toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -103,7 +126,7 @@ public final class RepetitionCheck extends ChatCheck {
      */
     @Override
     public boolean hasWarningEnabled() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ENABLE_REPETITION_WARNING));
+        return settingsProvider.getSettings().repetition().check().warningEnabled();
     }
 
     /**
@@ -114,8 +137,7 @@ public final class RepetitionCheck extends ChatCheck {
      */
     @Override
     public @NotNull List<String> getWarningMessages() {
-        TomlArray array = Objects.requireNonNull(messagesConfig.getConfigValue(MessagesSection.REPETITION_WARNING));
-        return SafeChatUtils.getStrings(array);
+        return settingsProvider.getSettings().repetition().check().warningMessages();
     }
 
     /**
@@ -142,7 +164,7 @@ public final class RepetitionCheck extends ChatCheck {
      */
     @Override
     public long getPunishmentRequiredValue() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.REPETITION_PUNISH_AFTER));
+        return settingsProvider.getSettings().repetition().check().punishAfter();
     }
 
     /**
@@ -153,7 +175,7 @@ public final class RepetitionCheck extends ChatCheck {
      */
     @Override
     public @NotNull String getPunishmentCommand() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.REPETITION_PUNISH_COMMAND));
+        return settingsProvider.getSettings().repetition().check().punishCommand();
     }
 
     /**
@@ -164,6 +186,6 @@ public final class RepetitionCheck extends ChatCheck {
      */
     @Override
     public boolean getLoggingEnabled() {
-        return checkConfig.getConfigValue(CheckSections.ENABLE_REPETITION_LOGGING, Boolean.class);
+        return settingsProvider.getSettings().repetition().check().loggingEnabled();
     }
 }
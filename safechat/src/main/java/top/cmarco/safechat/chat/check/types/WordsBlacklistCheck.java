@@ -18,24 +18,17 @@
 
 package top.cmarco.safechat.chat.check.types;
 
-import info.debatty.java.stringsimilarity.RatcliffObershelp;
 import org.jetbrains.annotations.NotNull;
-import org.tomlj.TomlArray;
 import top.cmarco.safechat.SafeChat;
 import top.cmarco.safechat.api.checks.*;
-import top.cmarco.safechat.config.blacklist.BlacklistConfig;
-import top.cmarco.safechat.config.checks.CheckConfig;
-import top.cmarco.safechat.config.messages.MessagesConfig;
-import top.cmarco.safechat.config.messages.MessagesSection;
-import top.cmarco.safechat.SafeChatUtils;
-import top.cmarco.safechat.config.blacklist.BlacklistSection;
-import top.cmarco.safechat.config.checks.CheckSections;
+import top.cmarco.safechat.config.settings.BlacklistSettings;
+import top.cmarco.safechat.config.settings.SettingsProvider;
+import top.cmarco.safechat.chat.check.blacklist.CompiledBlacklist;
+import top.cmarco.safechat.chat.check.blacklist.SimilarityIndex;
 
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Checks if a string is banned using a blacklist.
@@ -43,17 +36,13 @@ import java.util.regex.Pattern;
 @CheckName(name = "Blacklist")
 @CheckPermission(permission = "safechat.bypass.blacklist")
 @CheckPriority(priority = CheckPriority.Priority.LOW)
+@StatelessCheck
 public final class WordsBlacklistCheck extends ChatCheck {
 
-    private final RatcliffObershelp algo = new RatcliffObershelp();
-    private final BlacklistConfig blacklistConfig;
-    private final CheckConfig checkConfig;
-    private final MessagesConfig messagesConfig;
+    private final SettingsProvider settingsProvider;
 
-    public WordsBlacklistCheck(@NotNull BlacklistConfig blacklistConfig, @NotNull CheckConfig checkConfig, @NotNull MessagesConfig messagesConfig) {
-        this.checkConfig = Objects.requireNonNull(checkConfig);
-        this.messagesConfig = Objects.requireNonNull(messagesConfig);
-        this.blacklistConfig = Objects.requireNonNull(blacklistConfig);
+    public WordsBlacklistCheck(@NotNull SettingsProvider settingsProvider) {
+        this.settingsProvider = Objects.requireNonNull(settingsProvider);
     }
 
     /**
@@ -65,86 +54,111 @@ public final class WordsBlacklistCheck extends ChatCheck {
      * @param data The chat data.
      * @return True if failed, false otherwise.
      */
-    @SuppressWarnings("ConstantConditions")
     @Override
     public boolean check(@NotNull ChatData data) {
-        boolean enabled = Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ENABLE_BLACKLIST_CHECK));
+        return evaluate(data).isFailed();
+    }
 
-        if (!enabled) {
-            return false;
+    /**
+     * Block the message, or mask every blacklisted word when censoring is enabled.
+     *
+     * @param data The chat data.
+     * @return The verdict.
+     */
+    @Override
+    public @NotNull CheckVerdict evaluate(@NotNull ChatData data) {
+        final BlacklistSettings settings = settingsProvider.getSettings().blacklist();
+
+        if (!settings.check().enabled() || settings.words().isEmpty() || data.getMessage().isEmpty()) {
+            return CheckVerdict.pass();
         }
 
-        boolean checkSimilar = checkConfig.getConfigValue(CheckSections.BLACKLIST_ALLOW_SIMILARITY, Boolean.class);
-        boolean regexFallback = checkConfig.getConfigValue(CheckSections.ENABLE_BLACKLIST_FALLBACK, Boolean.class);
-        boolean stripAbnormal = checkConfig.getConfigValue(CheckSections.ENABLE_BLACKLIST_STRIPPING, Boolean.class);
+        if (settings.censor()) {
+            return CheckVerdict.censor(findSpans(settings, data.getNormalized()));
+        }
+        return isBlacklisted(settings, data.getNormalized()) ? CheckVerdict.block() : CheckVerdict.pass();
+    }
 
+    private static boolean isBlacklisted(@NotNull BlacklistSettings settings, @NotNull NormalizedMessage normalized) {
+        final String s = settings.stripAbnormal() ? normalized.getStripped() : normalized.getOriginal();
+        final CompiledBlacklist compiled = settings.compiled();
 
-        TomlArray words = blacklistConfig.getConfigValue(BlacklistSection.WORDS);
+        if (compiled.getAutomaton().findMatch(s) != null) {
+            return true;
+        }
 
-        int wordsSize = words.size();
+        if (settings.fallback() && compiled.getFallback().findMatch(s) != null) {
+            return true;
+        }
 
-        if (wordsSize == 0) {
+        if (!settings.allowSimilarity()) {
             return false;
         }
 
-        String s = data.getMessage();
+        // the stripped text has no whitespace left, so it is a single token.
+        String[] ss = settings.stripAbnormal() ? new String[]{s} : normalized.getTokens();
+        double factor = settings.maximumSimilarity();
+        SimilarityIndex similarityIndex = compiled.getSimilarityIndex();
 
-        if (s.isEmpty()) {
-            return false;
+        for (final String value : ss) {
+            if (isSimilar(similarityIndex, value, factor)) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        if (stripAbnormal) {
-            s = ABNORMAL_CHARACTERS.matcher(s).replaceAll("");
+    /**
+     * Find the spans of every blacklisted word, in the indices of the original message.
+     */
+    @NotNull
+    private static CensorSpans findSpans(@NotNull BlacklistSettings settings, @NotNull NormalizedMessage normalized) {
+        final boolean stripped = settings.stripAbnormal();
+        final String s = stripped ? normalized.getStripped() : normalized.getOriginal();
+        final CompiledBlacklist compiled = settings.compiled();
+        final CensorSpans spans = new CensorSpans();
+
+        compiled.getAutomaton().findSpans(s, spans);
+        if (settings.fallback()) {
+            compiled.getFallback().findSpans(s, spans);
         }
 
-        String[] ss = SPLIT_SPACE.split(s);
-
-        for (int k = 0; k < wordsSize; k++) {
-            String str = words.getString(k);
-            if (checkSimilar) {
-                double factor = ((Number) Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.BLACKLIST_MAXIMUM_SIMILARITY))).doubleValue();
-                for (final String value : ss) {
-                    if (algo.similarity(value, str) >= factor || algo.similarity(value.toLowerCase(Locale.ROOT), str) >= factor) {
-                        return true;
-                    }
+        if (settings.allowSimilarity()) {
+            final SimilarityIndex similarityIndex = compiled.getSimilarityIndex();
+            final double factor = settings.maximumSimilarity();
+            if (stripped) {
+                if (isSimilar(similarityIndex, s, factor)) {
+                    spans.add(0, s.length());
                 }
-            }
-
-            if (str.equalsIgnoreCase(s)) {
-                return true;
             } else {
-                for (final String value : ss) {
-                    if (value.equalsIgnoreCase(str)) {
-                        return true;
-                    }
-                }
-            }
-            if (regexFallback) {
-                StringBuilder stringBuilder = new StringBuilder();
-                String quote = Pattern.quote("!@#$%^&*()_+-.'?;:");
-                int length = str.length();
-                for (String piece :
-                        str.split("")) {
-                    --length;
-                    if (piece.trim().isEmpty()) {
-                        continue;
-                    }
-                    if (length <= 0) {
-                        stringBuilder.append("(").append(piece).append("+|([").append(quote).append("]|((§|&)[0-9A-FK-OR]|(§|&)))+\\s*+").append(piece).append(")");
-                    } else if (length == str.length() - 1) {
-                        stringBuilder.append("(").append(piece).append("+\\s*+|").append(piece).append("+\\s*+([").append(quote).append("]+\\s*+|((§|&)[0-9A-FK-OR]|(§|&)))+\\s*+)");
-                    } else {
-                        stringBuilder.append("(").append(piece).append("+\\s*+|([").append(quote).append("]+\\s*+|((§|&)[0-9A-FK-OR]|(§|&)))+\\s*+").append(piece).append("+\\s*+)");
+                final String[] tokens = normalized.getTokens();
+                for (int i = 0; i < tokens.length; i++) {
+                    if (isSimilar(similarityIndex, tokens[i], factor)) {
+                        spans.add(normalized.getTokenStart(i), normalized.getTokenEnd(i));
                     }
                 }
-                Pattern pattern = Pattern.compile(stringBuilder.toString(), Pattern.MULTILINE | Pattern.COMMENTS | Pattern.CASE_INSENSITIVE);
-                Matcher matcher = pattern.matcher(s);
-                if (matcher.find()) {
-                    return true;
-                }
             }
         }
-        return false;
+
+        if (!stripped || spans.isEmpty()) {
+            return spans;
+        }
+
+        // the stripped text dropped characters, so its spans are moved back onto the original message.
+        final int[] strippedSpans = spans.toArray();
+        final CensorSpans original = new CensorSpans();
+        for (int i = 0; i < strippedSpans.length; i += 2) {
+            original.add(normalized.getStrippedOrigin(strippedSpans[i]), normalized.getStrippedOrigin(strippedSpans[i + 1] - 1) + 1);
+        }
+        return original;
+    }
+
+    private static boolean isSimilar(@NotNull SimilarityIndex similarityIndex, @NotNull String value, double factor) {
+        if (similarityIndex.matches(value, factor)) {
+            return true;
+        }
+        String lowercase = value.toLowerCase(Locale.ROOT);
+        return !lowercase.equals(value) && similarityIndex.matches(lowercase, factor);
     }
 
     /**
@@ -155,7 +169,7 @@ public final class WordsBlacklistCheck extends ChatCheck {
      */
     @Override
     public boolean hasWarningEnabled() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ENABLE_BLACKLIST_WARNING));
+        return settingsProvider.getSettings().blacklist().check().warningEnabled();
     }
 
     /**
@@ -166,8 +180,7 @@ public final class WordsBlacklistCheck extends ChatCheck {
      */
     @Override
     public @NotNull List<String> getWarningMessages() {
-        TomlArray array = Objects.requireNonNull(messagesConfig.getConfigValue(MessagesSection.BLACKLIST_WARNING));
-        return SafeChatUtils.getStrings(array);
+        return settingsProvider.getSettings().blacklist().check().warningMessages();
     }
 
     /**
@@ -193,7 +206,7 @@ public final class WordsBlacklistCheck extends ChatCheck {
      */
     @Override
     public long getPunishmentRequiredValue() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.BLACKLIST_PUNISH_AFTER));
+        return settingsProvider.getSettings().blacklist().check().punishAfter();
     }
 
     /**
@@ -204,7 +217,7 @@ public final class WordsBlacklistCheck extends ChatCheck {
      */
     @Override
     public @NotNull String getPunishmentCommand() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.BLACKLIST_PUNISH_COMMAND));
+        return settingsProvider.getSettings().blacklist().check().punishCommand();
     }
 
     /**
@@ -215,6 +228,6 @@ public final class WordsBlacklistCheck extends ChatCheck {
      */
     @Override
     public boolean getLoggingEnabled() {
-        return Objects.requireNonNull(checkConfig.getConfigValue(CheckSections.ENABLE_BLACKLIST_LOGGING, Boolean.class));
+        return settingsProvider.getSettings().blacklist().check().loggingEnabled();
     }
 }
@@ -18,27 +18,20 @@
 
 package top.cmarco.safechat.chat.listeners;
 
-import org.bukkit.Server;
-import org.bukkit.command.ConsoleCommandSender;
-import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
-import org.bukkit.scheduler.BukkitScheduler;
 import org.jetbrains.annotations.NotNull;
 import top.cmarco.safechat.SafeChat;
+import top.cmarco.safechat.chat.ChatPipeline;
 import top.cmarco.safechat.persistence.mappers.PlayerDataManager;
-import top.cmarco.safechat.SafeChatUtils;
-import top.cmarco.safechat.api.checks.ChatData;
-import top.cmarco.safechat.api.checks.Check;
 import top.cmarco.safechat.api.checks.ChecksContainer;
-import top.cmarco.safechat.api.events.ChatPunishmentEvent;
 import top.cmarco.safechat.api.events.PlayerFailCheckEvent;
+import top.cmarco.safechat.chat.punishment.ViolationPipeline;
+import top.cmarco.safechat.chat.state.BypassCache;
 import top.cmarco.safechat.persistence.SafeChatHibernate;
-import top.cmarco.safechat.persistence.types.PlayerData;
 
-import java.util.Collection;
 import java.util.Objects;
 
 @SuppressWarnings("unused")
@@ -48,114 +41,41 @@ public final class ChatListener implements Listener {
     private final SafeChatHibernate safeChatHibernate;
     private final PlayerDataManager playerDataManager;
     private final ChecksContainer checksContainer;
+    private final BypassCache bypassCache;
+    private final ViolationPipeline violationPipeline;
+    private final ChatPipeline chatPipeline;
 
-    public ChatListener(SafeChatHibernate safeChatHibernate, ChecksContainer checksContainer) {
+    public ChatListener(SafeChatHibernate safeChatHibernate, ChecksContainer checksContainer, BypassCache bypassCache) {
         this.safeChatHibernate = safeChatHibernate;
         this.playerDataManager = Objects.requireNonNull(safeChatHibernate.getPlayerDataManager(), DATA_MANAGER_ABSENT);
         this.checksContainer = checksContainer;
+        this.bypassCache = bypassCache;
         this.safeChat = safeChatHibernate.getSafeChat();
-    }
-
-    private static void sendWarning(@NotNull Check check, @NotNull ChatData data) {
-        if (!check.hasWarningEnabled()) {
-            return;
-        }
-
-        Player player = data.getPlayer();
-
-        for (String msg : check.getWarningMessages()) {
-            String message = check.replacePlaceholders(Objects.requireNonNull(msg), data);
-            player.sendMessage(SafeChatUtils.color(message));
-        }
-    }
-
-    private void checkFlagsAmount(@NotNull Check check, @NotNull ChatData chatData) {
-        if (check.getPunishmentRequiredValue() == -1L) {
-            return;
-        }
-
-        String checkName = check.getName();
-
-        playerDataManager.getPlayerData(chatData.getPlayer()).whenComplete((playerData1, err) -> {
-
-            if (err != null) {
-                safeChat.getLogger().warning(err.getLocalizedMessage());
-                return;
-            }
-
-            final int flagAmount;
-            if (playerData1 == null) {
-                flagAmount = 1;
-            } else {
-
-                Integer i = playerData1.getFlagsMap().get(checkName);
-                flagAmount = Objects.requireNonNullElse(i, 1);
-            }
-
-            if (flagAmount % Math.abs(check.getPunishmentRequiredValue()) == 0) {
-
-                BukkitScheduler scheduler = safeChat.getServer().getScheduler();
-
-                scheduler.runTask(safeChat, () -> {
-
-                    ChatPunishmentEvent punishmentEvent = new ChatPunishmentEvent(check);
-                    safeChat.getServer().getPluginManager().callEvent(punishmentEvent);
-
-                    if (!punishmentEvent.isCancelled()) {
-                        dispatchCommands(check, chatData);
-                    }
-                });
-            }
-        });
-    }
-
-    private void dispatchCommands(@NotNull Check check, @NotNull ChatData chatData) {
-        Server server = safeChat.getServer();
-        ConsoleCommandSender console = server.getConsoleSender();
-        String formattedCommand = check.replacePlaceholders(check.getPunishmentCommand(), chatData);
-        server.dispatchCommand(console, formattedCommand);
-    }
-
-    private void updateData(@NotNull Player player, @NotNull String checkName) {
-        playerDataManager.addOrUpdatePlayerData(player, checkName);
+        this.violationPipeline = new ViolationPipeline(playerDataManager, safeChat.getPunishmentQueue(), safeChat.getLogger());
+        this.chatPipeline = new ChatPipeline(checksContainer::getActiveChecksSnapshot, bypassCache, safeChat.getStatistics(),
+                safeChat::getParallelCheckEvaluator, safeChat.getServer().getPluginManager(),
+                record -> safeChat.getViolationLogWriter().log(record), violationPipeline::handle, System::currentTimeMillis);
     }
 
     @EventHandler(ignoreCancelled = true, priority = EventPriority.LOWEST)
     private void onAsyncPlayerChat(AsyncPlayerChatEvent event) {
-        ChatData data = new ChatData(event.getPlayer(), event.getMessage(), System.currentTimeMillis());
-
-        Collection<Check> sortedPriorityChecks = checksContainer.getActiveChecks();
-
-        for (Check check : sortedPriorityChecks) {
-
-            if (event.getPlayer().hasPermission(check.getBypassPermission())) {
-                continue;
-            }
-
-            if (check.check(data)) {
-                PlayerFailCheckEvent playerFailCheckEvent = new PlayerFailCheckEvent(check, data);
-                safeChat.getServer().getPluginManager().callEvent(playerFailCheckEvent);
-
-                if (playerFailCheckEvent.isCancelled()) {
-                    continue;
-                }
-
-                if (check.getLoggingEnabled()) {
-                    SafeChatUtils.logMessage(check, data.getPlayer(), data.getMessage());
-                }
-
-                event.setCancelled(true);
-                sendWarning(check, data);
-                updateData(data.getPlayer(), check.getName());
-                break;
-            }
+        String message = chatPipeline.process(event.getPlayer(), event.getMessage());
+        if (message == null) {
+            event.setCancelled(true);
+        } else if (!message.equals(event.getMessage())) {
+            event.setMessage(message);
         }
     }
 
-    @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
+    /**
+     * Failures reported by other plugins through {@link PlayerFailCheckEvent} are not flagged,
+     * but their punishment is still evaluated against the current flags of the player.
+     */
+    @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
     private void onPlayerFailCheck(PlayerFailCheckEvent event) {
-        BukkitScheduler scheduler = safeChat.getServer().getScheduler();
-        scheduler.runTask(safeChat, () -> this.checkFlagsAmount(event.getCheck(), event.getChatData()));
+        if (!chatPipeline.isFiring(event)) {
+            violationPipeline.evaluate(event.getCheck(), event.getChatData());
+        }
     }
 
     @NotNull
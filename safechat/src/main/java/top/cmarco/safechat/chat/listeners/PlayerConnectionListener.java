@@ -0,0 +1,111 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.listeners;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.chat.state.BypassCache;
+import top.cmarco.safechat.chat.state.OnlineNames;
+import top.cmarco.safechat.chat.state.PlayerStateStore;
+import top.cmarco.safechat.persistence.PlayerFlagCache;
+
+import java.util.Objects;
+
+/**
+ * Keeps the per-player data of SafeChat in sync with the players
+ * that are connected to the server.
+ */
+@SuppressWarnings("unused")
+public final class PlayerConnectionListener implements Listener {
+
+    private final PlayerStateStore stateStore;
+    private final PlayerFlagCache flagCache;
+    private final BypassCache bypassCache;
+    private final OnlineNames onlineNames;
+
+    public PlayerConnectionListener(@NotNull PlayerStateStore stateStore, @NotNull PlayerFlagCache flagCache,
+                                    @NotNull BypassCache bypassCache, @NotNull OnlineNames onlineNames) {
+        this.stateStore = Objects.requireNonNull(stateStore);
+        this.flagCache = Objects.requireNonNull(flagCache);
+        this.bypassCache = Objects.requireNonNull(bypassCache);
+        this.onlineNames = Objects.requireNonNull(onlineNames);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            flagCache.load(event.getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            flagCache.invalidate(event.getPlayer().getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onPlayerJoin(PlayerJoinEvent event) {
+        flagCache.connect(event.getPlayer().getUniqueId());
+        bypassCache.refresh(event.getPlayer());
+        onlineNames.add(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        // per-world permissions may differ.
+        bypassCache.refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    private void onPlayerQuit(PlayerQuitEvent event) {
+        stateStore.remove(event.getPlayer().getUniqueId());
+        flagCache.invalidate(event.getPlayer().getUniqueId());
+        bypassCache.invalidate(event.getPlayer().getUniqueId());
+        onlineNames.remove(event.getPlayer());
+    }
+
+    @NotNull
+    public PlayerStateStore getStateStore() {
+        return stateStore;
+    }
+
+    @NotNull
+    public PlayerFlagCache getFlagCache() {
+        return flagCache;
+    }
+
+    @NotNull
+    public BypassCache getBypassCache() {
+        return bypassCache;
+    }
+
+    @NotNull
+    public OnlineNames getOnlineNames() {
+        return onlineNames;
+    }
+}
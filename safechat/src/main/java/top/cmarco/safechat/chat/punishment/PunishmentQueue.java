@@ -0,0 +1,150 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.punishment;
+
+import org.bukkit.Server;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.SafeChat;
+import top.cmarco.safechat.api.checks.ChatData;
+import top.cmarco.safechat.api.checks.Check;
+import top.cmarco.safechat.api.events.ChatPunishmentEvent;
+import top.cmarco.safechat.config.settings.SettingsProvider;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Dispatches the punishment commands on the main thread, once per tick.
+ * <p>
+ * Chat threads only queue the formatted command; a single task drains the
+ * queue every tick until the tick budget is spent, and what is left waits
+ * for the next tick, so a wave of failing players cannot stall the server.
+ * A command already waiting for the same player is not queued twice, so
+ * e.g. several checks kicking the same bot result in one kick.
+ */
+public final class PunishmentQueue {
+
+    private final SafeChat safeChat;
+    private final SettingsProvider settingsProvider;
+    private final Queue<PunishmentKey> queue = new ConcurrentLinkedQueue<>();
+    private final Map<PunishmentKey, Check> pending = new ConcurrentHashMap<>();
+    private BukkitTask drainTask;
+
+    public PunishmentQueue(@NotNull SafeChat safeChat, @NotNull SettingsProvider settingsProvider) {
+        this.safeChat = Objects.requireNonNull(safeChat);
+        this.settingsProvider = Objects.requireNonNull(settingsProvider);
+    }
+
+    /**
+     * Start draining the queue every tick.
+     */
+    public void start() {
+        if (drainTask == null) {
+            drainTask = safeChat.getServer().getScheduler().runTaskTimer(safeChat, this::drain, 1L, 1L);
+        }
+    }
+
+    /**
+     * Stop draining the queue and dispatch everything that is still pending.
+     * Must be called from the main thread.
+     */
+    public void shutdown() {
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+        PunishmentKey key;
+        while ((key = queue.poll()) != null) {
+            dispatch(key);
+        }
+    }
+
+    /**
+     * Queue the punishment of a check for a player.
+     *
+     * @param check The failed check.
+     * @param data  The chat data the check failed on.
+     * @return False if the same command was already waiting for that player.
+     */
+    public boolean enqueue(@NotNull Check check, @NotNull ChatData data) {
+        final String command = check.replacePlaceholders(check.getPunishmentCommand(), data);
+        final PunishmentKey key = new PunishmentKey(data.getPlayer().getUniqueId(), command);
+        if (pending.putIfAbsent(key, check) != null) {
+            return false;
+        }
+        queue.offer(key);
+        return true;
+    }
+
+    /**
+     * Dispatch the queued punishments until the tick budget is spent.
+     * At least one punishment is dispatched, so that the queue always moves.
+     */
+    private void drain() {
+        final long budget = settingsProvider.getSettings().plugin().punishments().tickBudget();
+        final long start = System.nanoTime();
+        PunishmentKey key;
+        do {
+            key = queue.poll();
+            if (key == null) {
+                return;
+            }
+            dispatch(key);
+        } while (System.nanoTime() - start < budget);
+    }
+
+    private void dispatch(@NotNull PunishmentKey key) {
+        final Check check = pending.remove(key);
+        if (check == null) {
+            return;
+        }
+
+        final Server server = safeChat.getServer();
+        final ChatPunishmentEvent punishmentEvent = new ChatPunishmentEvent(check);
+        server.getPluginManager().callEvent(punishmentEvent);
+
+        if (!punishmentEvent.isCancelled()) {
+            server.dispatchCommand(server.getConsoleSender(), key.command());
+            safeChat.getStatistics().recordPunishment();
+        }
+    }
+
+    /**
+     * Get the amount of punishments waiting to be dispatched.
+     *
+     * @return The queue depth.
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * The deduplication key of the queue.
+     *
+     * @param uuid    The UUID of the punished player.
+     * @param command The formatted punishment command.
+     */
+    private record PunishmentKey(@NotNull UUID uuid, @NotNull String command) {
+    }
+}
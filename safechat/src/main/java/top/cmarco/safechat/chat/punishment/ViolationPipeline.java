@@ -0,0 +1,110 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.punishment;
+
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.api.checks.ChatData;
+import top.cmarco.safechat.api.checks.Check;
+import top.cmarco.safechat.persistence.mappers.PlayerDataManager;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * Handles a failed check off the main thread:
+ * the flag is increased, the punishment threshold is evaluated and, if it is
+ * reached, the punishment is queued for the main thread, which is the only
+ * stage that needs it.
+ * <p>
+ * Every stage runs on the thread that completed the previous one: the chat
+ * thread when the flags of the player are cached, a persistence thread when
+ * they had to be loaded first.
+ */
+public final class ViolationPipeline {
+
+    private final PlayerDataManager playerDataManager;
+    private final PunishmentQueue punishmentQueue;
+    private final Logger logger;
+
+    public ViolationPipeline(@NotNull PlayerDataManager playerDataManager, @NotNull PunishmentQueue punishmentQueue, @NotNull Logger logger) {
+        this.playerDataManager = Objects.requireNonNull(playerDataManager);
+        this.punishmentQueue = Objects.requireNonNull(punishmentQueue);
+        this.logger = Objects.requireNonNull(logger);
+    }
+
+    /**
+     * Check whether an amount of flags triggers the punishment of a check.
+     *
+     * @param check The check.
+     * @param flags The amount of flags of the player for the check.
+     * @return True if the player must be punished.
+     */
+    public static boolean isPunishable(@NotNull Check check, int flags) {
+        final long required = check.getPunishmentRequiredValue();
+        // -1 disables the punishment, 0 would never be reached.
+        if (required == -1L || required == 0L || flags <= 0) {
+            return false;
+        }
+        return flags % Math.abs(required) == 0;
+    }
+
+    /**
+     * Handle a failed check.
+     *
+     * @param check The failed check.
+     * @param data  The chat data the check failed on.
+     * @return Completes once the punishment, if any, has been queued.
+     */
+    @NotNull
+    public CompletableFuture<Void> handle(@NotNull Check check, @NotNull ChatData data) {
+        return playerDataManager.incrementFlag(data.getPlayer(), check.getName())
+                .thenAccept(flags -> {
+                    if (isPunishable(check, flags)) {
+                        punishmentQueue.enqueue(check, data);
+                    }
+                })
+                .exceptionally(e -> {
+                    logger.warning(String.format("Could not flag %s for %s: %s", data.getPlayer().getName(), check.getName(), e.getMessage()));
+                    return null;
+                });
+    }
+
+    /**
+     * Evaluate the punishment of a check against the current flags of a player,
+     * without adding a flag. Used for the failures reported by other plugins.
+     *
+     * @param check The failed check.
+     * @param data  The chat data the check failed on.
+     * @return Completes once the punishment, if any, has been queued.
+     */
+    @NotNull
+    public CompletableFuture<Void> evaluate(@NotNull Check check, @NotNull ChatData data) {
+        return playerDataManager.getFlags(data.getPlayer(), check.getName())
+                .thenAccept(flags -> {
+                    if (isPunishable(check, flags)) {
+                        punishmentQueue.enqueue(check, data);
+                    }
+                })
+                .exceptionally(e -> {
+                    logger.warning(String.format("Could not read the flags of %s for %s: %s", data.getPlayer().getName(), check.getName(), e.getMessage()));
+                    return null;
+                });
+    }
+}
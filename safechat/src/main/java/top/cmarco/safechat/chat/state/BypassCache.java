@@ -0,0 +1,155 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.state;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.api.checks.Check;
+import top.cmarco.safechat.api.checks.ChecksContainer;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches, for every online player, which checks they bypass.
+ * The result is a bitmask with one bit per index of the active checks
+ * snapshot, so the chat path tests a single long instead of querying
+ * the permission backend once per check.
+ * A mask is only valid for the snapshot it was computed with: when a check
+ * is registered or unregistered the masks are recomputed on next use.
+ */
+public final class BypassCache {
+
+    /**
+     * The amount of checks a mask can hold. Checks at higher
+     * indices are always tested with {@link Player#hasPermission(String)}.
+     */
+    public static final int MASK_CAPACITY = Long.SIZE;
+
+    private final Map<UUID, BypassMask> masks = new ConcurrentHashMap<>();
+    private final Supplier<Check[]> activeChecks;
+
+    /**
+     * @param activeChecks Supplies the current active checks snapshot,
+     *                     usually {@link ChecksContainer#getActiveChecksSnapshot()}.
+     */
+    public BypassCache(@NotNull Supplier<Check[]> activeChecks) {
+        this.activeChecks = Objects.requireNonNull(activeChecks);
+    }
+
+    private static long compute(@NotNull Player player, @NotNull Check[] checks) {
+        long bits = 0L;
+        final int length = Math.min(checks.length, MASK_CAPACITY);
+        for (int i = 0; i < length; i++) {
+            if (player.hasPermission(checks[i].getBypassPermission())) {
+                bits |= 1L << i;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Get the bypass mask of a player for a snapshot of the active checks,
+     * computing it if it is missing or was computed for another snapshot.
+     * Only masks created by {@link #refresh(Player)} are updated: a missing mask is
+     * computed without being cached, so that a chat message still being handled
+     * when its sender quits cannot cache a mask again after {@link #invalidate(UUID)}.
+     *
+     * @param player The player.
+     * @param checks The snapshot returned by {@link ChecksContainer#getActiveChecksSnapshot()}.
+     * @return The mask.
+     */
+    public long getMask(@NotNull Player player, @NotNull Check[] checks) {
+        final BypassMask mask = masks.get(player.getUniqueId());
+        if (mask != null && mask.checks() == checks) {
+            return mask.bits();
+        }
+
+        final long bits = compute(player, checks);
+        if (mask != null) {
+            masks.computeIfPresent(player.getUniqueId(), (uuid, previous) -> new BypassMask(checks, bits));
+        }
+        return bits;
+    }
+
+    /**
+     * Check whether a player bypasses the check at an index of the snapshot.
+     *
+     * @param mask   The mask returned by {@link #getMask(Player, Check[])}.
+     * @param index  The index of the check in the snapshot.
+     * @param player The player.
+     * @param check  The check.
+     * @return True if the check is bypassed.
+     */
+    public static boolean isBypassed(long mask, int index, @NotNull Player player, @NotNull Check check) {
+        if (index < MASK_CAPACITY) {
+            return (mask & (1L << index)) != 0L;
+        }
+        return player.hasPermission(check.getBypassPermission());
+    }
+
+    /**
+     * Recompute the mask of a player against the current checks,
+     * e.g. after their permissions may have changed.
+     *
+     * @param player The player.
+     */
+    public void refresh(@NotNull Player player) {
+        final Check[] checks = activeChecks.get();
+        masks.put(player.getUniqueId(), new BypassMask(checks, compute(player, checks)));
+    }
+
+    /**
+     * Recompute the masks of several players.
+     *
+     * @param players The players.
+     */
+    public void refreshAll(@NotNull Iterable<? extends Player> players) {
+        for (final Player player : players) {
+            refresh(player);
+        }
+    }
+
+    /**
+     * Forget the mask of a player, usually when they leave.
+     *
+     * @param uuid The player's UUID.
+     */
+    public void invalidate(@NotNull UUID uuid) {
+        masks.remove(uuid);
+    }
+
+    public void clear() {
+        masks.clear();
+    }
+
+    public int size() {
+        return masks.size();
+    }
+
+    /**
+     * @param checks The snapshot the mask was computed with.
+     * @param bits   One bit per bypassed check index.
+     */
+    private record BypassMask(@NotNull Check[] checks, long bits) {
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.state;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The last accepted messages of a player with their fingerprints,
+ * kept in a bounded ring. Guarded by its own monitor.
+ */
+public final class MessageHistory {
+
+    private long[] times = new long[1];
+    private long[] fingerprints = new long[1];
+    private String[] messages = new String[1];
+    private int head;
+    private int size;
+
+    /**
+     * Look for a repetition of a message in the history, and add the message if there is none.
+     *
+     * @param message     The message.
+     * @param fingerprint The fingerprint of the message.
+     * @param now         The current epoch millis.
+     * @param capacity    The amount of messages to remember.
+     * @param expiration  The millis after which a message is forgotten, 0 to never forget.
+     * @param matcher     Decides whether a previous message is repeated.
+     * @return True if a previous message was repeated, in which case the message is not added.
+     */
+    public synchronized boolean checkAndAdd(@NotNull String message, long fingerprint, long now, int capacity, long expiration,
+                                            @NotNull Matcher matcher) {
+        resize(Math.max(1, capacity));
+
+        for (int i = 0; i < size; i++) {
+            final int index = Math.floorMod(head - 1 - i, messages.length);
+            if (expiration > 0L && now - times[index] > expiration) {
+                break;
+            }
+            if (matcher.isRepeated(messages[index], fingerprints[index], i == 0)) {
+                return true;
+            }
+        }
+
+        times[head] = now;
+        fingerprints[head] = fingerprint;
+        messages[head] = message;
+        head = (head + 1) % messages.length;
+        size = Math.min(size + 1, messages.length);
+        return false;
+    }
+
+    private void resize(int capacity) {
+        if (messages.length == capacity) {
+            return;
+        }
+        final long[] resizedTimes = new long[capacity];
+        final long[] resizedFingerprints = new long[capacity];
+        final String[] resizedMessages = new String[capacity];
+        final int kept = Math.min(size, capacity);
+        for (int i = 0; i < kept; i++) {
+            final int from = Math.floorMod(head - 1 - i, messages.length);
+            resizedTimes[kept - 1 - i] = times[from];
+            resizedFingerprints[kept - 1 - i] = fingerprints[from];
+            resizedMessages[kept - 1 - i] = messages[from];
+        }
+        times = resizedTimes;
+        fingerprints = resizedFingerprints;
+        messages = resizedMessages;
+        head = kept % capacity;
+        size = kept;
+    }
+
+    /**
+     * Compares a previous message of the history with the new one.
+     */
+    @FunctionalInterface
+    public interface Matcher {
+
+        /**
+         * @param previous    A previous message.
+         * @param fingerprint Its fingerprint.
+         * @param latest      Whether it is the latest accepted message.
+         * @return True if the new message repeats it.
+         */
+        boolean isRepeated(@NotNull String previous, long fingerprint, boolean latest);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.state;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The names of the online players, in lowercase, readable from the chat threads
+ * without going through the server player list.
+ */
+public final class OnlineNames {
+
+    /**
+     * The length bounds of a Minecraft player name.
+     */
+    public static final int MINIMUM_NAME_LENGTH = 3;
+    public static final int MAXIMUM_NAME_LENGTH = 16;
+
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+
+    public void add(@NotNull Player player) {
+        names.add(player.getName().toLowerCase(Locale.ROOT));
+    }
+
+    public void addAll(@NotNull Iterable<? extends Player> players) {
+        for (final Player player : players) {
+            add(player);
+        }
+    }
+
+    public void remove(@NotNull Player player) {
+        names.remove(player.getName().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Check whether a part of a text is the name of an online player, ignoring case.
+     * Parts that cannot be a player name are rejected without allocating.
+     *
+     * @param text  The text.
+     * @param start The index of the first character.
+     * @param end   The index after the last character.
+     * @return True if an online player has that name.
+     */
+    public boolean contains(@NotNull String text, int start, int end) {
+        final int length = end - start;
+        if (length < MINIMUM_NAME_LENGTH || length > MAXIMUM_NAME_LENGTH || names.isEmpty()) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (!isNameChar(text.charAt(i))) {
+                return false;
+            }
+        }
+        return names.contains(text.substring(start, end).toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    public void clear() {
+        names.clear();
+    }
+
+    public int size() {
+        return names.size();
+    }
+}
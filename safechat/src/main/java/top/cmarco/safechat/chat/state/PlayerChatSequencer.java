@@ -0,0 +1,81 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.state;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes the chat messages of each player.
+ * Bukkit may deliver the chat events of a single player on different threads at the
+ * same time, which would let stateful checks see that player's messages out of order.
+ * Every player gets their own fair lock, so their messages are handled one at a time
+ * in arrival order, while different players never wait for each other.
+ * A lock only exists while messages of its player are being handled, so nothing
+ * has to be removed when players leave.
+ */
+public final class PlayerChatSequencer {
+
+    private final Map<UUID, Sequence> sequences = new ConcurrentHashMap<>();
+
+    /**
+     * Wait until no other message of a player is being handled.
+     * Every call must be followed by {@link #release(UUID)}.
+     *
+     * @param uuid The player's UUID.
+     */
+    public void acquire(@NotNull UUID uuid) {
+        // the users are counted inside compute, which is atomic for the key.
+        final Sequence sequence = sequences.compute(uuid, (key, current) -> {
+            final Sequence result = current == null ? new Sequence() : current;
+            result.users++;
+            return result;
+        });
+        sequence.lock.lock();
+    }
+
+    /**
+     * Let the next message of a player be handled.
+     *
+     * @param uuid The player's UUID.
+     */
+    public void release(@NotNull UUID uuid) {
+        final Sequence sequence = Objects.requireNonNull(sequences.get(uuid));
+        sequence.lock.unlock();
+        sequences.computeIfPresent(uuid, (key, current) -> --current.users == 0 ? null : current);
+    }
+
+    /**
+     * @return The amount of players with messages being handled.
+     */
+    public int size() {
+        return sequences.size();
+    }
+
+    private static final class Sequence {
+
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private int users;
+    }
+}
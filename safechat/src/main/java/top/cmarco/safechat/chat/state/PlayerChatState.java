@@ -0,0 +1,64 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.state;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The chat state of a single player, shared by the stateful checks.
+ * Every part can be updated safely from any chat thread.
+ */
+public final class PlayerChatState {
+
+    private final SlidingWindowLimiter rateLimiter = new SlidingWindowLimiter();
+    private final MessageHistory messageHistory = new MessageHistory();
+    private volatile long lastAccess;
+
+    PlayerChatState(long now) {
+        this.lastAccess = now;
+    }
+
+    /**
+     * Get the chat rate limiter of the player.
+     *
+     * @return The rate limiter.
+     */
+    @NotNull
+    public SlidingWindowLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Get the last accepted messages of the player.
+     *
+     * @return The message history.
+     */
+    @NotNull
+    public MessageHistory getMessageHistory() {
+        return messageHistory;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    void touch(long now) {
+        this.lastAccess = now;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.state;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A concurrent store of the per-player chat state.
+ * Entries are removed when a player quits, and by {@link #evictIdle(long)}
+ * when they have not been used for too long, so the store only holds
+ * players who are (or recently were) chatting.
+ */
+public final class PlayerStateStore {
+
+    private final Map<UUID, PlayerChatState> states = new ConcurrentHashMap<>();
+
+    /**
+     * Get the state of a player, creating it if absent.
+     *
+     * @param uuid The player's UUID.
+     * @return The state.
+     */
+    @NotNull
+    public PlayerChatState get(@NotNull UUID uuid) {
+        final long now = System.currentTimeMillis();
+        final PlayerChatState state = states.computeIfAbsent(uuid, k -> new PlayerChatState(now));
+        state.touch(now);
+        return state;
+    }
+
+    /**
+     * Get the state of a player without creating it.
+     *
+     * @param uuid The player's UUID.
+     * @return The state, or null if absent.
+     */
+    @Nullable
+    public PlayerChatState peek(@NotNull UUID uuid) {
+        return states.get(uuid);
+    }
+
+    /**
+     * Remove the state of a player.
+     *
+     * @param uuid The player's UUID.
+     */
+    public void remove(@NotNull UUID uuid) {
+        states.remove(uuid);
+    }
+
+    /**
+     * Remove every state that was not used in the given amount of time.
+     *
+     * @param idleMillis The maximum idle time, in milliseconds.
+     * @return The amount of evicted states.
+     */
+    public int evictIdle(long idleMillis) {
+        final long threshold = System.currentTimeMillis() - idleMillis;
+        final int before = states.size();
+        states.values().removeIf(state -> state.getLastAccess() < threshold);
+        return before - states.size();
+    }
+
+    /**
+     * Remove every state.
+     */
+    public void clear() {
+        states.clear();
+    }
+
+    public int size() {
+        return states.size();
+    }
+}
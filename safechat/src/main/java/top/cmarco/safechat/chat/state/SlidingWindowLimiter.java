@@ -0,0 +1,122 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.state;
+
+/**
+ * A sliding-window-log rate limiter.
+ * The times of the last accepted messages are kept in a primitive ring, so a
+ * message is accepted only if it comes at least a minimum delay after the last
+ * one, and if less than {@code limit} messages were accepted during the last
+ * {@code window} milliseconds: bursts are allowed up to the limit, then the
+ * rate refills as the oldest messages slide out of the window.
+ * <p>
+ * A limiter is guarded by its own monitor, so uncontended for per-player limiters.
+ */
+public final class SlidingWindowLimiter {
+
+    /**
+     * Value returned by {@link #tryAcquire} when the message is accepted.
+     */
+    public static final long ACCEPTED = 0L;
+
+    private long[] times = new long[1];
+    private int head;
+    private int size;
+    private long overwritten;
+    private boolean grown;
+    private long retryAt;
+
+    /**
+     * Try to accept a message.
+     *
+     * @param now      The time of the message, in epoch millis.
+     * @param minDelay The minimum delay in millis after the last accepted message, 0 to disable.
+     * @param limit    The maximum amount of messages accepted in a window, 0 to disable.
+     * @param window   The length of the window in millis.
+     * @return {@link #ACCEPTED}, or the millis to wait before a message would be accepted.
+     */
+    public synchronized long tryAcquire(long now, long minDelay, int limit, long window) {
+        final boolean windowed = limit > 0 && window > 0L;
+        resize(windowed ? limit : 1);
+
+        long wait = ACCEPTED;
+        if (size > 0 && minDelay > 0L) {
+            wait = Math.max(wait, times[index(head - 1)] + minDelay - now);
+        }
+        if (windowed && size == times.length) {
+            wait = Math.max(wait, times[head] + window - now);
+        }
+
+        if (wait > ACCEPTED) {
+            retryAt = now + wait;
+            return wait;
+        }
+
+        overwritten = times[head];
+        grown = size < times.length;
+        times[head] = now;
+        head = index(head + 1);
+        if (grown) {
+            size++;
+        }
+        return ACCEPTED;
+    }
+
+    /**
+     * Undo the last accepted message, because a later limit refused it.
+     *
+     * @param now The time it was accepted at.
+     */
+    public synchronized void release(long now) {
+        final int last = index(head - 1);
+        if (size == 0 || times[last] != now) {
+            return;
+        }
+        times[last] = overwritten;
+        head = last;
+        if (grown) {
+            size--;
+        }
+    }
+
+    /**
+     * @return The epoch millis after which the last refused message would have been accepted.
+     */
+    public synchronized long getRetryAt() {
+        return retryAt;
+    }
+
+    private int index(int position) {
+        return Math.floorMod(position, times.length);
+    }
+
+    private void resize(int capacity) {
+        if (times.length == capacity) {
+            return;
+        }
+        final long[] resized = new long[capacity];
+        final int kept = Math.min(size, capacity);
+        for (int i = 0; i < kept; i++) {
+            resized[kept - 1 - i] = times[index(head - 1 - i)];
+        }
+        times = resized;
+        head = kept % capacity;
+        size = kept;
+    }
+}
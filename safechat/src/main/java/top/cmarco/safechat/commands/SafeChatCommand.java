@@ -32,6 +32,10 @@ import top.cmarco.safechat.api.checks.ChecksContainer;
 import top.cmarco.safechat.config.Configurations;
 import top.cmarco.safechat.config.localization.Localization;
 import top.cmarco.safechat.persistence.types.PlayerData;
+import top.cmarco.safechat.statistics.LatencyHistogram;
+import top.cmarco.safechat.statistics.OperationStatistics;
+import top.cmarco.safechat.statistics.StatisticsRegistry;
+import top.cmarco.safechat.statistics.StatisticsReport;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -46,7 +50,7 @@ import static top.cmarco.safechat.SafeChat.getLocale;
 
 public class SafeChatCommand extends Command {
 
-    private final static List<String> BASE_ARGS = Arrays.asList("help", "reload", "flags", "version");
+    private final static List<String> BASE_ARGS = Arrays.asList("help", "reload", "flags", "version", "stats");
     private final SafeChat safeChat;
 
     public SafeChatCommand(@NotNull SafeChat safeChat) {
@@ -85,6 +89,7 @@ public class SafeChatCommand extends Command {
 
             PluginConfigurationsData<SafeChat> data = safeChat.getConfigData();
             data.exportAndLoadAllLoadedConfigs(false); // storing new values.
+            safeChat.reloadSettings();
 
             ResourceBundle.clearCache();
             Localization localization = new Localization();
@@ -96,6 +101,31 @@ public class SafeChatCommand extends Command {
         }
     }
 
+    public void statsCommand(@NotNull CommandSender sender) {
+        if (!SafeChatUtils.permissionCheck("safechat.commands.stats", sender)) {
+            return;
+        }
+
+        StatisticsRegistry statistics = safeChat.getStatistics();
+        if (!statistics.isEnabled()) {
+            sender.sendMessage(SafeChatUtils.color(getLocale().getString("stats_disabled").replaceAll("(?i)\\{prefix}", getLocale().getString("prefix"))));
+            return;
+        }
+
+        sender.sendMessage(SafeChatUtils.color(getLocale().getString("stats_checks")));
+        StatisticsReport.sorted(statistics.getChecks()).forEach(operation -> sendStatistics(sender, operation));
+        sender.sendMessage(SafeChatUtils.color(getLocale().getString("stats_database")));
+        StatisticsReport.sorted(statistics.getDatabase()).forEach(operation -> sendStatistics(sender, operation));
+    }
+
+    private static void sendStatistics(@NotNull CommandSender sender, @NotNull OperationStatistics operation) {
+        LatencyHistogram.Snapshot latency = operation.getLatency().snapshot();
+        sender.sendMessage(SafeChatUtils.color(String.format(getLocale().getString("stats_entry"),
+                operation.getName(), operation.getInvocations(), operation.getFailures(), StatisticsReport.failureRate(operation),
+                StatisticsReport.formatDuration(latency.percentile(50.0D)), StatisticsReport.formatDuration(latency.percentile(99.0D)),
+                StatisticsReport.formatDuration(latency.getMax()))));
+    }
+
     public void flagsTypeSearchCommand(@NotNull CommandSender commandSender, @NotNull String flagType, @NotNull String playerName) {
         if (getAvailableCheckNamesList().contains(flagType)) {
             PlayerDataManager dataManager = safeChat.getSafeChatHibernate().getPlayerDataManager();
@@ -178,6 +208,9 @@ public class SafeChatCommand extends Command {
             case "version":
                 onVersion(sender);
                 break;
+            case "stats":
+                statsCommand(sender);
+                break;
             case "flags":
                 tooLittleArgs(sender);
                 break;
@@ -32,6 +32,8 @@ import top.cmarco.safechat.config.address.AddressSection;
 import top.cmarco.safechat.config.blacklist.BlacklistSection;
 import top.cmarco.safechat.config.checks.CheckSections;
 import top.cmarco.safechat.config.database.DatabaseConfig;
+import top.cmarco.safechat.config.metrics.MetricsConfig;
+import top.cmarco.safechat.config.metrics.MetricsSection;
 
 /**
  * The available configurations enum.
@@ -57,7 +59,11 @@ public enum Configurations implements ConfigurationData<SafeChat> {
     /**
      * The settings for SQL databases connections.
      */
-    DATABASE_SETTINGS("database-settings.toml", DatabaseConfig.class, DatabaseSection.class);
+    DATABASE_SETTINGS("database-settings.toml", DatabaseConfig.class, DatabaseSection.class),
+    /**
+     * The settings for the metrics exporter.
+     */
+    METRICS_SETTINGS("metrics-settings.toml", MetricsConfig.class, MetricsSection.class);
 
     private final String stringData;
     private final Class<? extends TomlSectionConfiguration<SafeChat, ?>> classData;
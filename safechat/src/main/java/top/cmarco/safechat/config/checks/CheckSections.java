@@ -29,12 +29,14 @@ public enum CheckSections implements SectionType {
     ENABLE_BLACKLIST_STRIPPING("blacklist.strip-abnormal-characters", Boolean.class),
     BLACKLIST_ALLOW_SIMILARITY("blacklist.allow-similarity", Boolean.class),
     BLACKLIST_MAXIMUM_SIMILARITY("blacklist.maximum-similarity", Double.class),
+    BLACKLIST_CENSOR("blacklist.censor", Boolean.class),
     BLACKLIST_PUNISH_AFTER("blacklist.punish-after", Long.class),
     BLACKLIST_PUNISH_COMMAND("blacklist.punish-command", String.class),
 
     ENABLE_ADDRESS_CHECK("address.enable-check", Boolean.class),
     ENABLE_ADDRESS_WARNING("address.enable-warning", Boolean.class),
     ENABLE_ADDRESS_LOGGING("address.enable-logging", Boolean.class),
+    ADDRESS_CENSOR("address.censor", Boolean.class),
     ADDRESS_PUNISH_AFTER("address.punish-after", Long.class),
     ADDRESS_PUNISH_COMMAND("address.punish-command", String.class),
 
@@ -42,6 +44,10 @@ public enum CheckSections implements SectionType {
     ENABLE_FLOOD_WARNING("flood.enable-warning", Boolean.class),
     ENABLE_FLOOD_LOGGING("flood.enable-logging", Boolean.class),
     FLOOD_REQUIRED_DELAY("flood.required-delay", Double.class),
+    FLOOD_BURST_SIZE("flood.burst-size", Long.class),
+    FLOOD_BURST_WINDOW("flood.burst-window", Double.class),
+    FLOOD_GLOBAL_LIMIT("flood.global-limit", Long.class),
+    FLOOD_GLOBAL_WINDOW("flood.global-window", Double.class),
     FLOOD_PUNISH_AFTER("flood.punish-after", Long.class),
     FLOOD_PUNISH_COMMAND("flood.punish-command", String.class),
 
@@ -50,6 +56,12 @@ public enum CheckSections implements SectionType {
     ENABLE_REPETITION_LOGGING("repetition.enable-logging", Boolean.class),
     REPETITION_ALLOW_SIMILARITY("repetition.allow-similarity", Boolean.class),
     REPETITION_MAXIMUM_SIMILARITY("repetition.maximum-similarity", Double.class),
+    REPETITION_HISTORY_SIZE("repetition.history-size", Long.class),
+    REPETITION_HISTORY_EXPIRATION("repetition.history-expiration", Double.class),
+    REPETITION_FINGERPRINT_DISTANCE("repetition.fingerprint-distance", Long.class),
+    REPETITION_CROSS_PLAYER_LIMIT("repetition.cross-player-limit", Long.class),
+    REPETITION_CROSS_PLAYER_WINDOW("repetition.cross-player-window", Double.class),
+    REPETITION_CROSS_PLAYER_MIN_LENGTH("repetition.cross-player-min-length", Long.class),
     REPETITION_PUNISH_AFTER("repetition.punish-after", Long.class),
     REPETITION_PUNISH_COMMAND("repetition.punish-command", String.class),
 
@@ -57,8 +69,28 @@ public enum CheckSections implements SectionType {
     ENABLE_CAPS_WARNING("caps.enable-warning", Boolean.class),
     ENABLE_CAPS_LOGGING("caps.enable-logging", Boolean.class),
     CAPS_UPPERCASE_CHARACTERS_LIMIT("caps.uppercase-characters-limit", Long.class),
+    CAPS_UPPERCASE_RATIO("caps.uppercase-ratio", Double.class),
+    CAPS_MINIMUM_LETTERS("caps.minimum-letters", Long.class),
+    CAPS_LOWERCASE_REWRITE("caps.lowercase-rewrite", Boolean.class),
     CAPS_PUNISH_AFTER("caps.punish-after", Long.class),
-    CAPS_PUNISH_COMMAND("caps.punish-command", String.class);
+    CAPS_PUNISH_COMMAND("caps.punish-command", String.class),
+
+    PLAYER_STATE_IDLE_EXPIRATION("player-state.idle-expiration", Long.class),
+    PLAYER_STATE_BYPASS_REFRESH_INTERVAL("player-state.bypass-refresh-interval", Long.class),
+
+    LOGGING_BUFFER_SIZE("logging.buffer-size", Long.class),
+    LOGGING_OVERFLOW_POLICY("logging.overflow-policy", String.class),
+    LOGGING_MAX_FILE_SIZE("logging.max-file-size", Long.class),
+    LOGGING_ROTATE_INTERVAL("logging.rotate-interval", Long.class),
+    LOGGING_COMPRESS("logging.compress", Boolean.class),
+
+    PARALLEL_CHECKS_ENABLED("parallel-checks.enabled", Boolean.class),
+    PARALLEL_CHECKS_PARALLELISM("parallel-checks.parallelism", Long.class),
+
+    STATISTICS_ENABLED("statistics.enabled", Boolean.class),
+    STATISTICS_DUMP_INTERVAL("statistics.dump-interval", Long.class),
+
+    PUNISHMENTS_TICK_BUDGET("punishments.tick-budget", Double.class);
 
     private final String stringData;
     private final Class<?> classData;
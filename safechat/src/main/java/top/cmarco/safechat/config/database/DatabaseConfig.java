@@ -24,7 +24,19 @@ import top.cmarco.safechat.SafeChat;
 
 public final class DatabaseConfig extends TomlSectionConfiguration<SafeChat, DatabaseSection> {
 
+    public static final int DEFAULT_POOL_SIZE = 10;
+
     public DatabaseConfig(@NotNull SafeChat javaPlugin, @NotNull String configurationFilename, @NotNull Class<? extends DatabaseSection> enumTypeClass) {
         super(javaPlugin, configurationFilename, enumTypeClass);
     }
+
+    /**
+     * Get the maximum amount of database connections.
+     *
+     * @return The configured pool size, or {@link #DEFAULT_POOL_SIZE} if missing.
+     */
+    public int getPoolSize() {
+        final Long poolSize = getConfigValue(DatabaseSection.POOL_SIZE);
+        return poolSize == null || poolSize < 1L ? DEFAULT_POOL_SIZE : poolSize.intValue();
+    }
 }
@@ -29,7 +29,13 @@ public enum DatabaseSection implements SectionType {
     PORT("database.port", Long.class),
     ADDRESS("database.address", String.class),
     TIMEOUT("database.timeout", Long.class),
-    FILEPATH("database.filepath", String.class);
+    FILEPATH("database.filepath", String.class),
+    POOL_SIZE("database.pool-size", Long.class),
+    FLUSH_INTERVAL("write-behind.flush-interval", Long.class),
+    FLUSH_SIZE("write-behind.flush-size", Long.class),
+    EXECUTOR_QUEUE_SIZE("executor.queue-size", Long.class),
+    EXECUTOR_VIRTUAL_THREADS("executor.virtual-threads", Boolean.class),
+    EXECUTOR_SHUTDOWN_TIMEOUT("executor.shutdown-timeout", Long.class);
 
     private final String stringData;
     private final Class<?> classData;
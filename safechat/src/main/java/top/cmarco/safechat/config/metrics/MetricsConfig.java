@@ -0,0 +1,53 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.config.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import studio.thevipershow.vtc.TomlSectionConfiguration;
+import top.cmarco.safechat.SafeChat;
+import top.cmarco.safechat.config.settings.ExporterSettings;
+
+public final class MetricsConfig extends TomlSectionConfiguration<SafeChat, MetricsSection> {
+
+    public static final String DEFAULT_BIND_ADDRESS = "127.0.0.1";
+    public static final int DEFAULT_PORT = 9225;
+    public static final String DEFAULT_PATH = "/metrics";
+
+    public MetricsConfig(@NotNull SafeChat javaPlugin, @NotNull String configurationFilename, @NotNull Class<? extends MetricsSection> enumTypeClass) {
+        super(javaPlugin, configurationFilename, enumTypeClass);
+    }
+
+    /**
+     * Read the Prometheus exporter settings, missing values falling back to the defaults.
+     *
+     * @return The exporter settings.
+     */
+    @NotNull
+    public ExporterSettings getExporterSettings() {
+        final Boolean enabled = getConfigValue(MetricsSection.EXPORTER_ENABLED);
+        final String bindAddress = getConfigValue(MetricsSection.EXPORTER_BIND_ADDRESS);
+        final Long port = getConfigValue(MetricsSection.EXPORTER_PORT);
+        final String path = getConfigValue(MetricsSection.EXPORTER_PATH);
+
+        return new ExporterSettings(enabled != null && enabled,
+                bindAddress == null || bindAddress.isBlank() ? DEFAULT_BIND_ADDRESS : bindAddress,
+                port == null || port < 1L || port > 65535L ? DEFAULT_PORT : port.intValue(),
+                path == null || !path.startsWith("/") ? DEFAULT_PATH : path);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.config.settings;
+
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.chat.check.address.AddressWhitelist;
+
+import java.util.List;
+
+/**
+ * The settings of the address check.
+ *
+ * @param check            The shared check settings.
+ * @param censor           Whether the forbidden domains and addresses are masked instead of blocking the message.
+ * @param allowedDomains   The whitelisted domains.
+ * @param allowedAddresses The whitelisted IPv4 addresses.
+ * @param whitelist        The whitelisted domains and addresses, hashed for the check.
+ */
+public record AddressSettings(@NotNull CheckSettings check,
+                              boolean censor,
+                              @NotNull List<String> allowedDomains,
+                              @NotNull List<String> allowedAddresses,
+                              @NotNull AddressWhitelist whitelist) {
+
+    public AddressSettings {
+        allowedDomains = List.copyOf(allowedDomains);
+        allowedAddresses = List.copyOf(allowedAddresses);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.config.settings;
+
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.chat.check.blacklist.CompiledBlacklist;
+
+import java.util.List;
+
+/**
+ * The settings of the words blacklist check.
+ *
+ * @param check             The shared check settings.
+ * @param fallback          Whether the obfuscation regexes are used.
+ * @param stripAbnormal     Whether abnormal characters are stripped from messages.
+ * @param allowSimilarity   Whether words similar to blacklisted ones are matched.
+ * @param maximumSimilarity The similarity factor required to match a word.
+ * @param censor            Whether the matched words are masked instead of blocking the message.
+ * @param words             The blacklisted words.
+ * @param compiled          The blacklist precompiled from the words.
+ */
+public record BlacklistSettings(@NotNull CheckSettings check,
+                                boolean fallback,
+                                boolean stripAbnormal,
+                                boolean allowSimilarity,
+                                double maximumSimilarity,
+                                boolean censor,
+                                @NotNull List<String> words,
+                                @NotNull CompiledBlacklist compiled) {
+
+    public BlacklistSettings {
+        words = List.copyOf(words);
+    }
+}
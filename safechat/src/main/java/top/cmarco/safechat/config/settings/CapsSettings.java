@@ -0,0 +1,37 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.config.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The settings of the caps check.
+ *
+ * @param check            The shared check settings.
+ * @param uppercaseLimit   The maximum allowed number of uppercase characters, used when the ratio is 0.
+ * @param uppercaseRatio   The maximum allowed ratio of uppercase letters over letters, 0 to disable.
+ * @param minimumLetters   The amount of letters a message needs before its ratio is scored.
+ * @param lowercaseRewrite Whether a shouted message is sent in lowercase instead of being cancelled.
+ */
+public record CapsSettings(@NotNull CheckSettings check,
+                           long uppercaseLimit,
+                           double uppercaseRatio,
+                           int minimumLetters,
+                           boolean lowercaseRewrite) {
+}
@@ -0,0 +1,45 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.config.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * The settings every built-in check shares.
+ *
+ * @param enabled          Whether the check is enabled.
+ * @param warningEnabled   Whether a warning is sent upon failing the check.
+ * @param loggingEnabled   Whether violations are logged to file.
+ * @param punishAfter      How often a player gets punished for failing the check.
+ * @param punishCommand    The command executed to punish a player.
+ * @param warningMessages  The warning messages.
+ */
+public record CheckSettings(boolean enabled,
+                            boolean warningEnabled,
+                            boolean loggingEnabled,
+                            long punishAfter,
+                            @NotNull String punishCommand,
+                            @NotNull List<String> warningMessages) {
+
+    public CheckSettings {
+        warningMessages = List.copyOf(warningMessages);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package top.cmarco.safechat.config.settings;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Read access to the values of a configuration, by section.
+ * The TOML configurations provide it with a method reference, which lets
+ * the settings be loaded from a parsed file without a running plugin.
+ *
+ * @param <S> The sections of the configuration.
+ */
+@FunctionalInterface
+interface ConfigValues<S> {
+
+    /**
+     * @param section The section.
+     * @param <T>     The type of the value.
+     * @return The value, or null if it is missing.
+     */
+    @Nullable
+    <T> T getConfigValue(@NotNull S section);
+
+    /**
+     * @param section The section.
+     * @param type    The type of the value.
+     * @param <T>     The type of the value.
+     * @return The value, or null if it is missing.
+     */
+    @Nullable
+    default <T> T getConfigValue(@NotNull S section, @NotNull Class<T> type) {
+        return type.cast(getConfigValue(section));
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.config.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The settings of the flood check.
+ *
+ * @param check         The shared check settings.
+ * @param requiredDelay The minimum delay in millis between two messages of a player.
+ * @param burstSize     The maximum amount of messages of a player in a burst window, 0 to disable.
+ * @param burstWindow   The length in millis of the burst window.
+ * @param globalLimit   The maximum amount of messages of the whole server in a global window, 0 to disable.
+ * @param globalWindow  The length in millis of the global window.
+ */
+public record FloodSettings(@NotNull CheckSettings check,
+                            long requiredDelay,
+                            int burstSize,
+                            long burstWindow,
+                            int globalLimit,
+                            long globalWindow) {
+}
@@ -0,0 +1,38 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.config.settings;
+
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.logging.OverflowPolicy;
+
+/**
+ * The settings of the violations log writer.
+ *
+ * @param bufferSize     The amount of violations that can wait to be written.
+ * @param overflowPolicy What to do when the buffer is full.
+ * @param maxFileSize    The size in bytes after which the log is rotated, 0 to disable.
+ * @param rotateInterval The age in milliseconds after which the log is rotated, 0 to disable.
+ * @param compress       Whether rotated logs are compressed with gzip.
+ */
+public record LogSettings(int bufferSize,
+                          @NotNull OverflowPolicy overflowPolicy,
+                          long maxFileSize,
+                          long rotateInterval,
+                          boolean compress) {
+}
@@ -0,0 +1,29 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.config.settings;
+
+/**
+ * The settings of the parallel evaluation of the stateless checks.
+ *
+ * @param enabled     Whether the stateless checks of a priority tier are evaluated concurrently.
+ * @param parallelism The amount of worker threads, 0 to use one less than the available processors.
+ */
+public record ParallelChecksSettings(boolean enabled,
+                                     int parallelism) {
+}
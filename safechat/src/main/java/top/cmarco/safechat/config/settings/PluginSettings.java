@@ -0,0 +1,113 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.config.settings;
+
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.config.checks.CheckSections;
+import top.cmarco.safechat.logging.OverflowPolicy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable snapshot of the settings of the plugin subsystems
+ * that are not checks: player state, logging, statistics and punishments.
+ *
+ * @param stateIdleExpiration   The seconds after which an idle player chat state is evicted.
+ * @param bypassRefreshInterval The seconds between two refreshes of the players bypass permissions, 0 to disable.
+ * @param logging               The violations log settings.
+ * @param parallelChecks        The parallel evaluation of the stateless checks settings.
+ * @param statistics            The checks and database statistics settings.
+ * @param punishments           The punishment commands dispatch settings.
+ */
+public record PluginSettings(long stateIdleExpiration,
+                             long bypassRefreshInterval,
+                             @NotNull LogSettings logging,
+                             @NotNull ParallelChecksSettings parallelChecks,
+                             @NotNull StatisticsSettings statistics,
+                             @NotNull PunishmentSettings punishments) {
+
+    public static final long DEFAULT_STATE_IDLE_EXPIRATION = 600L;
+    public static final long DEFAULT_BYPASS_REFRESH_INTERVAL = 30L;
+    public static final long DEFAULT_STATISTICS_DUMP_INTERVAL = 300L;
+    public static final double DEFAULT_PUNISHMENT_TICK_BUDGET = 2.0D;
+    public static final long DEFAULT_LOG_BUFFER_SIZE = 4096L;
+    public static final long DEFAULT_LOG_MAX_FILE_SIZE = 10L;
+    public static final long DEFAULT_LOG_ROTATE_INTERVAL = 24L;
+
+    /**
+     * Read a new snapshot from the checks settings configuration.
+     *
+     * @param checkConfig The checks settings configuration.
+     * @return The snapshot.
+     */
+    @NotNull
+    static PluginSettings load(@NotNull ConfigValues<CheckSections> checkConfig) {
+        final Number stateIdleExpiration = checkConfig.getConfigValue(CheckSections.PLAYER_STATE_IDLE_EXPIRATION);
+        final Number bypassRefreshInterval = checkConfig.getConfigValue(CheckSections.PLAYER_STATE_BYPASS_REFRESH_INTERVAL);
+
+        return new PluginSettings(
+                stateIdleExpiration == null ? DEFAULT_STATE_IDLE_EXPIRATION : stateIdleExpiration.longValue(),
+                bypassRefreshInterval == null ? DEFAULT_BYPASS_REFRESH_INTERVAL : bypassRefreshInterval.longValue(),
+                logging(checkConfig),
+                parallelChecks(checkConfig),
+                statistics(checkConfig),
+                punishments(checkConfig));
+    }
+
+    @NotNull
+    private static PunishmentSettings punishments(@NotNull ConfigValues<CheckSections> checkConfig) {
+        final Number tickBudget = checkConfig.getConfigValue(CheckSections.PUNISHMENTS_TICK_BUDGET);
+        final double millis = tickBudget == null ? DEFAULT_PUNISHMENT_TICK_BUDGET : tickBudget.doubleValue();
+        return new PunishmentSettings(Math.max(0L, Math.round(millis * 1_000_000.0D)));
+    }
+
+    @NotNull
+    private static StatisticsSettings statistics(@NotNull ConfigValues<CheckSections> checkConfig) {
+        final Boolean enabled = checkConfig.getConfigValue(CheckSections.STATISTICS_ENABLED);
+        final Number dumpInterval = checkConfig.getConfigValue(CheckSections.STATISTICS_DUMP_INTERVAL);
+
+        return new StatisticsSettings(enabled == null || enabled,
+                dumpInterval == null ? DEFAULT_STATISTICS_DUMP_INTERVAL : dumpInterval.longValue());
+    }
+
+    @NotNull
+    private static ParallelChecksSettings parallelChecks(@NotNull ConfigValues<CheckSections> checkConfig) {
+        final Boolean enabled = checkConfig.getConfigValue(CheckSections.PARALLEL_CHECKS_ENABLED);
+        final Number parallelism = checkConfig.getConfigValue(CheckSections.PARALLEL_CHECKS_PARALLELISM);
+
+        return new ParallelChecksSettings(enabled != null && enabled,
+                parallelism == null ? 0 : Math.max(0, parallelism.intValue()));
+    }
+
+    @NotNull
+    private static LogSettings logging(@NotNull ConfigValues<CheckSections> checkConfig) {
+        final Number bufferSize = checkConfig.getConfigValue(CheckSections.LOGGING_BUFFER_SIZE);
+        final String overflowPolicy = checkConfig.getConfigValue(CheckSections.LOGGING_OVERFLOW_POLICY);
+        final Number maxFileSize = checkConfig.getConfigValue(CheckSections.LOGGING_MAX_FILE_SIZE);
+        final Number rotateInterval = checkConfig.getConfigValue(CheckSections.LOGGING_ROTATE_INTERVAL);
+        final Boolean compress = checkConfig.getConfigValue(CheckSections.LOGGING_COMPRESS);
+
+        return new LogSettings(
+                (int) (bufferSize == null ? DEFAULT_LOG_BUFFER_SIZE : bufferSize.longValue()),
+                OverflowPolicy.parse(overflowPolicy),
+                (maxFileSize == null ? DEFAULT_LOG_MAX_FILE_SIZE : maxFileSize.longValue()) * 1024L * 1024L,
+                TimeUnit.HOURS.toMillis(rotateInterval == null ? DEFAULT_LOG_ROTATE_INTERVAL : rotateInterval.longValue()),
+                compress == null || compress);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.config.settings;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The settings of the repetition check.
+ *
+ * @param check                The shared check settings.
+ * @param allowSimilarity      Whether similar (but not equal) messages are allowed.
+ * @param maximumSimilarity    The similarity factor above which two messages are repeated.
+ * @param historySize          The amount of previous messages of a player compared with a new one.
+ * @param historyExpiration    The millis after which a previous message is no longer compared, 0 to never expire.
+ * @param fingerprintDistance  The differing fingerprint bits under which an older message is compared exactly.
+ * @param crossPlayerLimit     The amount of players that may post the same message in the cross-player window, 0 to disable.
+ * @param crossPlayerWindow    The length in millis of the cross-player window.
+ * @param crossPlayerMinLength The minimum amount of letters and digits for a message to be compared across players.
+ */
+public record RepetitionSettings(@NotNull CheckSettings check,
+                                 boolean allowSimilarity,
+                                 double maximumSimilarity,
+                                 int historySize,
+                                 long historyExpiration,
+                                 int fingerprintDistance,
+                                 int crossPlayerLimit,
+                                 long crossPlayerWindow,
+                                 int crossPlayerMinLength) {
+}
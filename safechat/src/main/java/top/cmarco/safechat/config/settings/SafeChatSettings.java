@@ -0,0 +1,201 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.config.settings;
+
+import org.jetbrains.annotations.NotNull;
+import org.tomlj.TomlArray;
+import top.cmarco.safechat.SafeChatUtils;
+import top.cmarco.safechat.chat.check.address.AddressWhitelist;
+import top.cmarco.safechat.chat.check.blacklist.CompiledBlacklist;
+import top.cmarco.safechat.config.address.AddressConfig;
+import top.cmarco.safechat.config.address.AddressSection;
+import top.cmarco.safechat.config.blacklist.BlacklistConfig;
+import top.cmarco.safechat.config.blacklist.BlacklistSection;
+import top.cmarco.safechat.config.checks.CheckConfig;
+import top.cmarco.safechat.config.checks.CheckSections;
+import top.cmarco.safechat.config.messages.MessagesConfig;
+import top.cmarco.safechat.config.messages.MessagesSection;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * An immutable snapshot of the SafeChat settings: every setting used by the
+ * built-in checks, plus the settings of the other subsystems in {@link #plugin()}.
+ * The snapshot is read once from the TOML configurations, so that
+ * the chat threads never have to look values up in the TOML tree.
+ *
+ * @param blacklist  The words blacklist check settings.
+ * @param address    The address check settings.
+ * @param flood      The flood check settings.
+ * @param repetition The repetition check settings.
+ * @param caps       The caps check settings.
+ * @param plugin     The settings that are not about checks.
+ */
+public record SafeChatSettings(@NotNull BlacklistSettings blacklist,
+                               @NotNull AddressSettings address,
+                               @NotNull FloodSettings flood,
+                               @NotNull RepetitionSettings repetition,
+                               @NotNull CapsSettings caps,
+                               @NotNull PluginSettings plugin) {
+
+    public static final long DEFAULT_CAPS_LIMIT = 8L;
+    public static final double DEFAULT_CAPS_RATIO = 0.0D;
+    public static final long DEFAULT_CAPS_MINIMUM_LETTERS = 8L;
+    public static final long DEFAULT_FLOOD_BURST_SIZE = 0L;
+    public static final double DEFAULT_FLOOD_BURST_WINDOW = 10.0D;
+    public static final long DEFAULT_FLOOD_GLOBAL_LIMIT = 0L;
+    public static final double DEFAULT_FLOOD_GLOBAL_WINDOW = 1.0D;
+    public static final long DEFAULT_REPETITION_HISTORY_SIZE = 1L;
+    public static final long DEFAULT_REPETITION_HISTORY_EXPIRATION = 0L;
+    public static final long DEFAULT_REPETITION_FINGERPRINT_DISTANCE = 12L;
+    public static final long DEFAULT_REPETITION_CROSS_PLAYER_LIMIT = 0L;
+    public static final long DEFAULT_REPETITION_CROSS_PLAYER_WINDOW = 30L;
+    public static final long DEFAULT_REPETITION_CROSS_PLAYER_MIN_LENGTH = 10L;
+
+    /**
+     * Read a new snapshot from the configurations.
+     *
+     * @param checkConfig     The checks settings configuration.
+     * @param messagesConfig  The messages configuration.
+     * @param blacklistConfig The words blacklist configuration.
+     * @param addressConfig   The address whitelist configuration.
+     * @param logger          The logger used to report invalid values.
+     * @return The snapshot.
+     */
+    @NotNull
+    public static SafeChatSettings load(@NotNull CheckConfig checkConfig,
+                                        @NotNull MessagesConfig messagesConfig,
+                                        @NotNull BlacklistConfig blacklistConfig,
+                                        @NotNull AddressConfig addressConfig,
+                                        @NotNull Logger logger) {
+        return load(checkConfig::getConfigValue, messagesConfig::getConfigValue,
+                blacklistConfig::getConfigValue, addressConfig::getConfigValue, logger);
+    }
+
+    @NotNull
+    static SafeChatSettings load(@NotNull ConfigValues<CheckSections> checkConfig,
+                                 @NotNull ConfigValues<MessagesSection> messagesConfig,
+                                 @NotNull ConfigValues<BlacklistSection> blacklistConfig,
+                                 @NotNull ConfigValues<AddressSection> addressConfig,
+                                 @NotNull Logger logger) {
+        final List<String> words = strings(blacklistConfig.getConfigValue(BlacklistSection.WORDS));
+        final BlacklistSettings blacklist = new BlacklistSettings(
+                check(checkConfig, messagesConfig, CheckSections.ENABLE_BLACKLIST_CHECK, CheckSections.ENABLE_BLACKLIST_WARNING,
+                        CheckSections.ENABLE_BLACKLIST_LOGGING, CheckSections.BLACKLIST_PUNISH_AFTER, CheckSections.BLACKLIST_PUNISH_COMMAND,
+                        MessagesSection.BLACKLIST_WARNING),
+                bool(checkConfig, CheckSections.ENABLE_BLACKLIST_FALLBACK),
+                bool(checkConfig, CheckSections.ENABLE_BLACKLIST_STRIPPING),
+                bool(checkConfig, CheckSections.BLACKLIST_ALLOW_SIMILARITY),
+                number(checkConfig, CheckSections.BLACKLIST_MAXIMUM_SIMILARITY).doubleValue(),
+                Boolean.TRUE.equals(checkConfig.getConfigValue(CheckSections.BLACKLIST_CENSOR)),
+                words,
+                CompiledBlacklist.compile(words, logger));
+
+        final List<String> allowedDomains = strings(addressConfig.getConfigValue(AddressSection.ALLOWED_DOMAINS));
+        final List<String> allowedAddresses = strings(addressConfig.getConfigValue(AddressSection.ALLOWED_ADDRESSES));
+        final AddressSettings address = new AddressSettings(
+                check(checkConfig, messagesConfig, CheckSections.ENABLE_ADDRESS_CHECK, CheckSections.ENABLE_ADDRESS_WARNING,
+                        CheckSections.ENABLE_ADDRESS_LOGGING, CheckSections.ADDRESS_PUNISH_AFTER, CheckSections.ADDRESS_PUNISH_COMMAND,
+                        MessagesSection.ADDRESS_WARNING),
+                Boolean.TRUE.equals(checkConfig.getConfigValue(CheckSections.ADDRESS_CENSOR)),
+                allowedDomains,
+                allowedAddresses,
+                AddressWhitelist.compile(allowedDomains, allowedAddresses));
+
+        final FloodSettings flood = new FloodSettings(
+                check(checkConfig, messagesConfig, CheckSections.ENABLE_FLOOD_CHECK, CheckSections.ENABLE_FLOOD_WARNING,
+                        CheckSections.ENABLE_FLOOD_LOGGING, CheckSections.FLOOD_PUNISH_AFTER, CheckSections.FLOOD_PUNISH_COMMAND,
+                        MessagesSection.FLOOD_WARNING),
+                millis(number(checkConfig, CheckSections.FLOOD_REQUIRED_DELAY)),
+                (int) optionalNumber(checkConfig, CheckSections.FLOOD_BURST_SIZE, DEFAULT_FLOOD_BURST_SIZE).longValue(),
+                millis(optionalNumber(checkConfig, CheckSections.FLOOD_BURST_WINDOW, DEFAULT_FLOOD_BURST_WINDOW)),
+                (int) optionalNumber(checkConfig, CheckSections.FLOOD_GLOBAL_LIMIT, DEFAULT_FLOOD_GLOBAL_LIMIT).longValue(),
+                millis(optionalNumber(checkConfig, CheckSections.FLOOD_GLOBAL_WINDOW, DEFAULT_FLOOD_GLOBAL_WINDOW)));
+
+        final RepetitionSettings repetition = new RepetitionSettings(
+                check(checkConfig, messagesConfig, CheckSections.ENABLE_REPETITION_CHECK, CheckSections.ENABLE_REPETITION_WARNING,
+                        CheckSections.ENABLE_REPETITION_LOGGING, CheckSections.REPETITION_PUNISH_AFTER, CheckSections.REPETITION_PUNISH_COMMAND,
+                        MessagesSection.REPETITION_WARNING),
+                bool(checkConfig, CheckSections.REPETITION_ALLOW_SIMILARITY),
+                number(checkConfig, CheckSections.REPETITION_MAXIMUM_SIMILARITY).doubleValue(),
+                (int) Math.max(1L, optionalNumber(checkConfig, CheckSections.REPETITION_HISTORY_SIZE, DEFAULT_REPETITION_HISTORY_SIZE).longValue()),
+                millis(optionalNumber(checkConfig, CheckSections.REPETITION_HISTORY_EXPIRATION, DEFAULT_REPETITION_HISTORY_EXPIRATION)),
+                (int) optionalNumber(checkConfig, CheckSections.REPETITION_FINGERPRINT_DISTANCE, DEFAULT_REPETITION_FINGERPRINT_DISTANCE).longValue(),
+                (int) optionalNumber(checkConfig, CheckSections.REPETITION_CROSS_PLAYER_LIMIT, DEFAULT_REPETITION_CROSS_PLAYER_LIMIT).longValue(),
+                millis(optionalNumber(checkConfig, CheckSections.REPETITION_CROSS_PLAYER_WINDOW, DEFAULT_REPETITION_CROSS_PLAYER_WINDOW)),
+                (int) optionalNumber(checkConfig, CheckSections.REPETITION_CROSS_PLAYER_MIN_LENGTH, DEFAULT_REPETITION_CROSS_PLAYER_MIN_LENGTH).longValue());
+
+        final Number capsLimit = checkConfig.getConfigValue(CheckSections.CAPS_UPPERCASE_CHARACTERS_LIMIT);
+        final CapsSettings caps = new CapsSettings(
+                check(checkConfig, messagesConfig, CheckSections.ENABLE_CAPS_CHECK, CheckSections.ENABLE_CAPS_WARNING,
+                        CheckSections.ENABLE_CAPS_LOGGING, CheckSections.CAPS_PUNISH_AFTER, CheckSections.CAPS_PUNISH_COMMAND,
+                        MessagesSection.CAPS_WARNING),
+                capsLimit == null ? DEFAULT_CAPS_LIMIT : capsLimit.longValue(),
+                optionalNumber(checkConfig, CheckSections.CAPS_UPPERCASE_RATIO, DEFAULT_CAPS_RATIO).doubleValue(),
+                (int) optionalNumber(checkConfig, CheckSections.CAPS_MINIMUM_LETTERS, DEFAULT_CAPS_MINIMUM_LETTERS).longValue(),
+                Boolean.TRUE.equals(checkConfig.getConfigValue(CheckSections.CAPS_LOWERCASE_REWRITE)));
+
+        return new SafeChatSettings(blacklist, address, flood, repetition, caps, PluginSettings.load(checkConfig));
+    }
+
+    @NotNull
+    private static CheckSettings check(@NotNull ConfigValues<CheckSections> checkConfig, @NotNull ConfigValues<MessagesSection> messagesConfig,
+                                       @NotNull CheckSections enabled, @NotNull CheckSections warning, @NotNull CheckSections logging,
+                                       @NotNull CheckSections punishAfter, @NotNull CheckSections punishCommand,
+                                       @NotNull MessagesSection warningMessages) {
+        return new CheckSettings(
+                bool(checkConfig, enabled),
+                bool(checkConfig, warning),
+                bool(checkConfig, logging),
+                number(checkConfig, punishAfter).longValue(),
+                Objects.requireNonNull(checkConfig.getConfigValue(punishCommand, String.class)),
+                strings(messagesConfig.getConfigValue(warningMessages)));
+    }
+
+    private static boolean bool(@NotNull ConfigValues<CheckSections> checkConfig, @NotNull CheckSections section) {
+        return Objects.requireNonNull(checkConfig.getConfigValue(section, Boolean.class));
+    }
+
+    @NotNull
+    private static Number number(@NotNull ConfigValues<CheckSections> checkConfig, @NotNull CheckSections section) {
+        return Objects.requireNonNull(checkConfig.getConfigValue(section));
+    }
+
+    @NotNull
+    private static Number optionalNumber(@NotNull ConfigValues<CheckSections> checkConfig, @NotNull CheckSections section, @NotNull Number defaultValue) {
+        final Number value = checkConfig.getConfigValue(section);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * @param seconds A duration in seconds, possibly fractional.
+     * @return The duration in millis, never negative.
+     */
+    private static long millis(@NotNull Number seconds) {
+        return Math.max(0L, Math.round(seconds.doubleValue() * 1000.0D));
+    }
+
+    @NotNull
+    private static List<String> strings(TomlArray array) {
+        return array == null ? Collections.emptyList() : SafeChatUtils.getStrings(array);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.config.settings;
+
+import org.jetbrains.annotations.NotNull;
+import studio.thevipershow.vtc.PluginConfigurationsData;
+import top.cmarco.safechat.SafeChat;
+import top.cmarco.safechat.config.Configurations;
+import top.cmarco.safechat.config.address.AddressConfig;
+import top.cmarco.safechat.config.blacklist.BlacklistConfig;
+import top.cmarco.safechat.config.checks.CheckConfig;
+import top.cmarco.safechat.config.messages.MessagesConfig;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Holds the current {@link SafeChatSettings} snapshot.
+ * The snapshot is replaced atomically on reload: a check reading it
+ * always sees either the old settings or the new ones, never a mix.
+ */
+public final class SettingsProvider {
+
+    private final Supplier<SafeChatSettings> loader;
+    private volatile SafeChatSettings settings;
+
+    /**
+     * Create a provider reading the settings from the plugin configurations.
+     *
+     * @param safeChat The plugin.
+     */
+    public SettingsProvider(@NotNull SafeChat safeChat) {
+        this(() -> load(Objects.requireNonNull(safeChat)));
+    }
+
+    /**
+     * Create a provider reading the settings from a custom source,
+     * e.g. a fixed snapshot outside of a running server.
+     *
+     * @param loader Builds a new snapshot on every reload.
+     */
+    public SettingsProvider(@NotNull Supplier<SafeChatSettings> loader) {
+        this.loader = Objects.requireNonNull(loader);
+        reload();
+    }
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    private static SafeChatSettings load(@NotNull SafeChat safeChat) {
+        PluginConfigurationsData<SafeChat> data = Objects.requireNonNull(safeChat.getConfigData());
+        CheckConfig checkConfig = Objects.requireNonNull(data.getConfig(Configurations.CHECKS_SETTINGS));
+        MessagesConfig messagesConfig = Objects.requireNonNull(data.getConfig(Configurations.MESSAGES));
+        BlacklistConfig blacklistConfig = Objects.requireNonNull(data.getConfig(Configurations.BLACKLIST));
+        AddressConfig addressConfig = Objects.requireNonNull(data.getConfig(Configurations.ADDRESS));
+
+        return SafeChatSettings.load(checkConfig, messagesConfig, blacklistConfig, addressConfig, safeChat.getLogger());
+    }
+
+    /**
+     * Build a new snapshot from the currently loaded configurations
+     * and publish it.
+     * Must be called after the configurations have been (re)loaded.
+     */
+    public void reload() {
+        this.settings = Objects.requireNonNull(loader.get());
+    }
+
+    /**
+     * Get the current settings snapshot.
+     *
+     * @return The settings.
+     */
+    @NotNull
+    public SafeChatSettings getSettings() {
+        return settings;
+    }
+}
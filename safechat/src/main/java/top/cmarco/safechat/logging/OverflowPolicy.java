@@ -0,0 +1,49 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.logging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * What to do with a violation when the log buffer is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Discard the violation and count it as dropped.
+     */
+    DROP,
+    /**
+     * Wait for the writer thread to make room.
+     */
+    BLOCK;
+
+    /**
+     * Parse a policy from the configuration.
+     *
+     * @param name The policy name, case-insensitive.
+     * @return The policy, {@link #DROP} if unknown.
+     */
+    @NotNull
+    public static OverflowPolicy parse(@Nullable String name) {
+        return name != null && name.toUpperCase(Locale.ROOT).equals(BLOCK.name()) ? BLOCK : DROP;
+    }
+}
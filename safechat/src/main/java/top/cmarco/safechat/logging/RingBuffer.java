@@ -0,0 +1,116 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.logging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free ring buffer for many producers and a single consumer.
+ * Every slot carries a sequence number telling whether it can be written
+ * or read, so producers only contend on a single compare-and-set.
+ *
+ * @param <E> The type of the elements.
+ */
+public final class RingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private volatile long tail;
+
+    /**
+     * @param requestedCapacity The minimum capacity, rounded up to a power of two.
+     */
+    public RingBuffer(int requestedCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, requestedCapacity) * 2 - 1);
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element, may be called by any thread.
+     *
+     * @param element The element.
+     * @return False if the buffer is full.
+     */
+    public boolean offer(@NotNull E element) {
+        long position = head.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long difference = sequences.get(index) - position;
+
+            if (difference == 0L) {
+                if (head.compareAndSet(position, position + 1L)) {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1L);
+                    return true;
+                }
+                position = head.get();
+            } else if (difference < 0L) {
+                return false;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest element, must only be called by the consumer thread.
+     *
+     * @return The element, or null if the buffer is empty.
+     */
+    @Nullable
+    public E poll() {
+        final long position = tail;
+        final int index = (int) position & mask;
+
+        if (sequences.get(index) != position + 1L) {
+            return null;
+        }
+
+        final E element = elements.get(index);
+        elements.set(index, null);
+        sequences.set(index, position + capacity);
+        tail = position + 1L;
+        return element;
+    }
+
+    public boolean isEmpty() {
+        return head.get() == tail;
+    }
+
+    public int size() {
+        return (int) Math.max(0L, head.get() - tail);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.logging;
+
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.config.settings.LogSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the chat violations to logs/checkLogs.log from a dedicated thread.
+ * Chat threads only push records in a lock-free ring buffer; the writer
+ * thread formats them into a buffered file channel and rotates the file
+ * by size and age, optionally compressing the rotated files with gzip.
+ */
+public final class ViolationLogWriter {
+
+    public static final String LOG_FILE_NAME = "checkLogs";
+    public static final String LOG_FILE_EXTENSION = ".log";
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50L);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100L);
+    private static final DateTimeFormatter ARCHIVE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss");
+
+    private final Path directory;
+    private final Path file;
+    private final LogSettings settings;
+    private final Logger logger;
+    private final RingBuffer<ViolationRecord> buffer;
+    private final ByteBuffer output = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    private volatile boolean running;
+    private Thread thread;
+    private FileChannel channel;
+    private long fileSize;
+    private long openedAt;
+
+    /**
+     * @param directory The directory of the log files.
+     * @param settings  The logging settings.
+     * @param logger    The logger used to report I/O errors.
+     */
+    public ViolationLogWriter(@NotNull Path directory, @NotNull LogSettings settings, @NotNull Logger logger) {
+        this.directory = Objects.requireNonNull(directory);
+        this.file = directory.resolve(LOG_FILE_NAME + LOG_FILE_EXTENSION);
+        this.settings = Objects.requireNonNull(settings);
+        this.logger = Objects.requireNonNull(logger);
+        this.buffer = new RingBuffer<>(settings.bufferSize());
+    }
+
+    /**
+     * Start the writer thread.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "SafeChat-ViolationLog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the writer thread once every queued violation has been written.
+     *
+     * @param timeoutMillis The maximum time to wait for the writer, in milliseconds.
+     */
+    public synchronized void close(long timeoutMillis) {
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * Queue a violation, never blocking unless the overflow policy is {@link OverflowPolicy#BLOCK}.
+     *
+     * @param record The violation.
+     * @return False if the violation was dropped.
+     */
+    public boolean log(@NotNull ViolationRecord record) {
+        if (running && buffer.offer(record)) {
+            return true;
+        }
+
+        if (settings.overflowPolicy() == OverflowPolicy.BLOCK) {
+            final Thread writer = thread;
+            while (running) {
+                if (writer != null) {
+                    LockSupport.unpark(writer);
+                }
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                if (buffer.offer(record)) {
+                    return true;
+                }
+            }
+        }
+
+        dropped.increment();
+        return false;
+    }
+
+    private void run() {
+        try {
+            open();
+            while (running || !buffer.isEmpty()) {
+                final ViolationRecord record = buffer.poll();
+                if (record == null) {
+                    flushOutput();
+                    if (shouldRotate()) {
+                        rotate();
+                    }
+                    if (running) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                    continue;
+                }
+
+                write(format(record).getBytes(StandardCharsets.UTF_8));
+                written.increment();
+                if (shouldRotate()) {
+                    rotate();
+                }
+            }
+            flushOutput();
+        } catch (IOException e) {
+            running = false;
+            logger.log(Level.WARNING, "Could not write the check logs, logging has been stopped.", e);
+        } finally {
+            closeChannel();
+        }
+    }
+
+    @NotNull
+    private static String format(@NotNull ViolationRecord record) {
+        final ZonedDateTime zdt = ZonedDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneId.systemDefault());
+        return String.format("%1$tb %1$td, %1$tY %1$tl:%1$tM:%1$tS %1$Tp %2$s check%n%3$s: %4$s: %5$s\n%n",
+                zdt,
+                record.checkName(),
+                Level.INFO.getLocalizedName(),
+                record.playerName(),
+                record.message());
+    }
+
+    private void write(byte @NotNull [] bytes) throws IOException {
+        if (bytes.length > output.remaining()) {
+            flushOutput();
+        }
+        if (bytes.length > output.capacity()) {
+            final ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+        } else {
+            output.put(bytes);
+        }
+        fileSize += bytes.length;
+    }
+
+    private void flushOutput() throws IOException {
+        if (output.position() == 0) {
+            return;
+        }
+        output.flip();
+        while (output.hasRemaining()) {
+            channel.write(output);
+        }
+        output.clear();
+    }
+
+    private boolean shouldRotate() {
+        if (fileSize == 0L) {
+            return false;
+        }
+        if (settings.maxFileSize() > 0L && fileSize >= settings.maxFileSize()) {
+            return true;
+        }
+        return settings.rotateInterval() > 0L && System.currentTimeMillis() - openedAt >= settings.rotateInterval();
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = channel.size();
+        openedAt = System.currentTimeMillis();
+    }
+
+    private void rotate() throws IOException {
+        flushOutput();
+        closeChannel();
+
+        final String stamp = ZonedDateTime.now().format(ARCHIVE_FORMAT);
+        Path archive = directory.resolve(LOG_FILE_NAME + '-' + stamp + LOG_FILE_EXTENSION);
+        for (int i = 1; Files.exists(archive) || Files.exists(gzipPath(archive)); i++) {
+            archive = directory.resolve(LOG_FILE_NAME + '-' + stamp + '-' + i + LOG_FILE_EXTENSION);
+        }
+        Files.move(file, archive);
+
+        if (settings.compress()) {
+            compress(archive);
+        }
+
+        open();
+    }
+
+    @NotNull
+    private static Path gzipPath(@NotNull Path path) {
+        return path.resolveSibling(path.getFileName() + ".gz");
+    }
+
+    private void compress(@NotNull Path archive) {
+        final Path compressed = gzipPath(archive);
+        try (final InputStream in = Files.newInputStream(archive);
+             final OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), OUTPUT_BUFFER_SIZE)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not compress the rotated check logs " + archive.getFileName(), e);
+            return;
+        }
+
+        try {
+            Files.delete(archive);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not delete the rotated check logs " + archive.getFileName(), e);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not close the check logs.", e);
+        }
+        channel = null;
+    }
+
+    /**
+     * @return The amount of violations waiting to be written.
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    @NotNull
+    public LogSettings getSettings() {
+        return settings;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
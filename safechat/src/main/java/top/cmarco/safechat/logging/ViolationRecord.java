@@ -0,0 +1,35 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.logging;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A chat violation waiting to be written to the log.
+ *
+ * @param timestamp  The epoch millis of the violation.
+ * @param checkName  The name of the failed check.
+ * @param playerName The name of the player.
+ * @param message    The message sent by the player.
+ */
+public record ViolationRecord(long timestamp,
+                              @NotNull String checkName,
+                              @NotNull String playerName,
+                              @NotNull String message) {
+}
@@ -0,0 +1,251 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.persistence;
+
+import org.bukkit.scheduler.BukkitTask;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.SafeChat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * A write-behind queue for the players flags.
+ * Flag increments are coalesced in memory per (uuid, check) and
+ * periodically written to the database in batched JDBC statements,
+ * so that the chat threads never wait for the database.
+ * The flushes run on the persistence executor, next to the rest of the database work.
+ */
+public final class FlagWriteBehindQueue {
+
+    public static final String FLUSH_OPERATION = "flush-flags";
+
+    private final SessionFactory sessionFactory;
+    private final SafeChat safeChat;
+    private final Executor executor;
+    private final UpsertSyntax upsertSyntax;
+    private final long flushIntervalTicks;
+    private final int flushSize;
+
+    private final Map<FlagKey, PendingFlag> pendingFlags = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final Object flushLock = new Object();
+    private BukkitTask flushTask;
+
+    public FlagWriteBehindQueue(@NotNull SessionFactory sessionFactory, @NotNull SafeChat safeChat, @NotNull Executor executor,
+                                @NotNull UpsertSyntax upsertSyntax, long flushIntervalMillis, int flushSize) {
+        this.sessionFactory = Objects.requireNonNull(sessionFactory);
+        this.safeChat = Objects.requireNonNull(safeChat);
+        this.executor = Objects.requireNonNull(executor);
+        this.upsertSyntax = Objects.requireNonNull(upsertSyntax);
+        this.flushIntervalTicks = Math.max(1L, flushIntervalMillis / 50L);
+        this.flushSize = Math.max(1, flushSize);
+    }
+
+    /**
+     * Start flushing the queue periodically.
+     */
+    public void start() {
+        if (flushTask == null) {
+            // the timer only hands the flush over to the executor.
+            flushTask = safeChat.getServer().getScheduler().runTaskTimer(safeChat, this::scheduleFlush, flushIntervalTicks, flushIntervalTicks);
+        }
+    }
+
+    /**
+     * Run a flush on the executor, unless one is already waiting to run.
+     * If the executor is full the flush is retried on the next schedule.
+     */
+    private void scheduleFlush() {
+        if (pendingFlags.isEmpty() || !flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        } catch (RejectedExecutionException e) {
+            flushScheduled.set(false);
+        }
+    }
+
+    /**
+     * Stop the periodic flushes and write everything that is still pending.
+     * This blocks until the last flush has completed.
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+    }
+
+    /**
+     * Queue a flag increment for a player.
+     *
+     * @param uuid      The player's UUID.
+     * @param name      The player's name.
+     * @param checkName The name of the failed check.
+     */
+    public void increment(@NotNull UUID uuid, @NotNull String name, @NotNull String checkName) {
+        pendingFlags.merge(new FlagKey(uuid, checkName), new PendingFlag(name, 1), PendingFlag::merge);
+
+        if (pendingFlags.size() >= flushSize) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Get the increments that have not been written yet.
+     *
+     * @param uuid      The player's UUID.
+     * @param checkName The name of the check.
+     * @return The pending amount of flags.
+     */
+    public int getPending(@NotNull UUID uuid, @NotNull String checkName) {
+        final PendingFlag pending = pendingFlags.get(new FlagKey(uuid, checkName));
+        return pending == null ? 0 : pending.amount();
+    }
+
+    /**
+     * Get all the increments of a player that have not been written yet.
+     *
+     * @param uuid The player's UUID.
+     * @return The pending flags, by check name.
+     */
+    @NotNull
+    public Map<String, Integer> getPending(@NotNull UUID uuid) {
+        final Map<String, Integer> result = new HashMap<>();
+        pendingFlags.forEach((key, pending) -> {
+            if (key.uuid().equals(uuid)) {
+                result.put(key.checkName(), pending.amount());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Get the amount of (uuid, check) pairs waiting to be written.
+     *
+     * @return The queue depth.
+     */
+    public int size() {
+        return pendingFlags.size();
+    }
+
+    /**
+     * Run a read while no flush is in progress.
+     * Reading the database and then the pending increments is only consistent
+     * if no batch moves from the queue to the database in between.
+     *
+     * @param reader The read to perform.
+     * @param <T>    The type of the result.
+     * @return The result of the read.
+     */
+    public <T> T readConsistent(@NotNull Supplier<T> reader) {
+        synchronized (flushLock) {
+            return reader.get();
+        }
+    }
+
+    /**
+     * Write all the pending increments to the database in a single transaction.
+     * If the transaction fails the increments are put back in the queue.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            if (pendingFlags.isEmpty()) {
+                return;
+            }
+
+            final Map<FlagKey, PendingFlag> batch = new HashMap<>();
+            final Map<FlagKey, Integer> amounts = new HashMap<>();
+            final Map<UUID, String> names = new HashMap<>();
+            for (final FlagKey key : pendingFlags.keySet()) {
+                final PendingFlag pending = pendingFlags.remove(key);
+                if (pending != null) {
+                    batch.put(key, pending);
+                    amounts.put(key, pending.amount());
+                    names.put(key.uuid(), pending.name());
+                }
+            }
+
+            final long start = System.nanoTime();
+            boolean failed = false;
+            Transaction transaction = null;
+            try (final Session session = sessionFactory.openSession()) {
+                transaction = session.beginTransaction();
+                session.doWork(connection -> {
+                    upsertSyntax.upsertPlayers(connection, names);
+                    upsertSyntax.incrementFlags(connection, amounts);
+                });
+                transaction.commit();
+            } catch (HibernateException e) {
+                failed = true;
+                if (transaction != null && transaction.isActive()) {
+                    transaction.rollback();
+                }
+                requeue(batch);
+                safeChat.getLogger().warning(e.getLocalizedMessage());
+            }
+            safeChat.getStatistics().recordDatabase(FLUSH_OPERATION, start, failed);
+        }
+    }
+
+    private void requeue(@NotNull Map<FlagKey, PendingFlag> batch) {
+        batch.forEach((key, pending) -> pendingFlags.merge(key, pending, PendingFlag::merge));
+    }
+
+    /**
+     * The coalescing key of the queue.
+     *
+     * @param uuid      The player's UUID.
+     * @param checkName The name of the check.
+     */
+    public record FlagKey(@NotNull UUID uuid, @NotNull String checkName) {
+    }
+
+    /**
+     * The coalesced increments of a key.
+     *
+     * @param name   The latest known name of the player.
+     * @param amount The amount of flags to add.
+     */
+    private record PendingFlag(@NotNull String name, int amount) {
+
+        @NotNull
+        private static PendingFlag merge(@NotNull PendingFlag older, @NotNull PendingFlag newer) {
+            return new PendingFlag(newer.name(), older.amount() + newer.amount());
+        }
+    }
+}
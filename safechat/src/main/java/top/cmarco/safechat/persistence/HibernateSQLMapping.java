@@ -36,35 +36,35 @@ public enum HibernateSQLMapping {
     /**
      * MySQL Server type.
      */
-    MYSQL("mysql", "org.mysql.jdbc.Driver", generateUrl("mysql"), MySQLDialect.class, false),
+    MYSQL("mysql", "org.mysql.jdbc.Driver", generateUrl("mysql"), MySQLDialect.class, UpsertSyntax.ON_DUPLICATE_KEY, false),
     /**
      * PostgreSQL Server type.
      */
-    POSTGRESQL("postgresql", "org.postgresql.Driver", generateUrl("postgresql"), PostgreSQLDialect.class, false),
+    POSTGRESQL("postgresql", "org.postgresql.Driver", generateUrl("postgresql"), PostgreSQLDialect.class, UpsertSyntax.ON_CONFLICT, false),
     /**
      * MariaDB Server type.
      */
-    MARIADB("mariadb", "mariadb.jdbc.Driver", generateUrl("mariadb"), MariaDBDialect.class, false),
+    MARIADB("mariadb", "mariadb.jdbc.Driver", generateUrl("mariadb"), MariaDBDialect.class, UpsertSyntax.ON_DUPLICATE_KEY, false),
     /**
      * H2 Engine Type.
      */
-    H2("h2", "org.h2.Driver", generateFileUrl("h2"), H2Dialect.class, true),
+    H2("h2", "org.h2.Driver", generateFileUrl("h2"), H2Dialect.class, UpsertSyntax.MERGE, true),
     /**
      * CockroachDB Server type.
      */
-    COCKROACHDB("cockroachdb", "org.postgresql.Driver", generateUrl("postgresql"), CockroachDialect.class, false),
+    COCKROACHDB("cockroachdb", "org.postgresql.Driver", generateUrl("postgresql"), CockroachDialect.class, UpsertSyntax.ON_CONFLICT, false),
     /**
      * HyperSQL Engine type.
      */
-    HYPERSQL("hsql", "hsqldb.jdbc.JDBCDriver", generateFileUrl("hsqldb"), HSQLDialect.class, true),
+    HYPERSQL("hsql", "hsqldb.jdbc.JDBCDriver", generateFileUrl("hsqldb"), HSQLDialect.class, UpsertSyntax.MERGE, true),
     /**
      * Microsoft's SQLServer type.
      */
-    SQLSERVER("sqlserver", "microsoft.sqlserver.jdbc.SQLServerDriver", generateUrl("sqlserver"), SQLServerDialect.class, false),
+    SQLSERVER("sqlserver", "microsoft.sqlserver.jdbc.SQLServerDriver", generateUrl("sqlserver"), SQLServerDialect.class, UpsertSyntax.MERGE_HOLDLOCK, false),
     /**
      * IBM DB2 Server type.
      */
-    DB2("db2", "com.ibm.db2.jcc.DB2Driver", generateFileUrl("db2"), DB2Dialect.class, false);
+    DB2("db2", "com.ibm.db2.jcc.DB2Driver", generateFileUrl("db2"), DB2Dialect.class, UpsertSyntax.MERGE, false);
 
     public static final String DB_TYPE_PLACEHOLDER = "{TYPE}";
     public static final String STD_JDBC_URL = "jdbc:" + DB_TYPE_PLACEHOLDER + "://%s:%d/%s";
@@ -73,13 +73,15 @@ public enum HibernateSQLMapping {
     private final String driverClassName;
     private final String urlFormatter;
     private final Class<? extends Dialect> hibernateDialectClass;
+    private final UpsertSyntax upsertSyntax;
     private final boolean fileBased;
 
-    HibernateSQLMapping(@NotNull String sqlFlavour, @NotNull String driverClassName, @NotNull String urlFormatter, @NotNull Class<? extends Dialect> hibernateDialectClass, boolean fileBased) {
+    HibernateSQLMapping(@NotNull String sqlFlavour, @NotNull String driverClassName, @NotNull String urlFormatter, @NotNull Class<? extends Dialect> hibernateDialectClass, @NotNull UpsertSyntax upsertSyntax, boolean fileBased) {
         this.sqlFlavour = sqlFlavour;
         this.driverClassName = driverClassName;
         this.urlFormatter = urlFormatter;
         this.hibernateDialectClass = hibernateDialectClass;
+        this.upsertSyntax = upsertSyntax;
         this.fileBased = fileBased;
     }
 
@@ -118,6 +120,7 @@ public enum HibernateSQLMapping {
             properties.put("hibernate.hikari.password", dbConfig.getConfigValue(DatabaseSection.PASSWORD));
         }
 
+        properties.put("hibernate.hikari.maximumPoolSize", String.valueOf(dbConfig.getPoolSize()));
         properties.put("hibernate.dataSourceClassName", HikariDataSource.class.getName());
         properties.put(Environment.JAKARTA_JDBC_DRIVER, driverClassName);
         properties.put("hibernate.hikari.dataSource.cachePrepStmts", "true");
@@ -153,6 +156,11 @@ public enum HibernateSQLMapping {
         return hibernateDialectClass;
     }
 
+    @NotNull
+    public UpsertSyntax getUpsertSyntax() {
+        return upsertSyntax;
+    }
+
     public boolean isFileBased() {
         return fileBased;
     }
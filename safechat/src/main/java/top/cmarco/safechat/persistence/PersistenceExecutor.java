@@ -0,0 +1,210 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.persistence;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * The executor that runs the blocking database work of SafeChat,
+ * so that it never occupies the JVM-wide common pool.
+ * Both the running and the waiting tasks are bounded; tasks over the
+ * limit are rejected and counted.
+ * With virtual threads every task gets its own thread, so the tasks
+ * still wait for one of {@code threads} slots before touching the database.
+ */
+public final class PersistenceExecutor implements Executor {
+
+    private static final long REJECTION_LOG_INTERVAL = 100L;
+
+    private final ExecutorService executorService;
+    private final Semaphore permits;
+    private final Semaphore running;
+    private final Logger logger;
+    private final int threads;
+    private final int queueCapacity;
+    private final boolean virtualThreads;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+
+    /**
+     * @param threads         The maximum amount of tasks running at once, usually the connection pool size.
+     * @param queueCapacity   The maximum amount of tasks waiting to run.
+     * @param virtualThreads  Whether to run each task on a virtual thread, when the JVM supports them.
+     * @param logger          The logger used to report rejections.
+     */
+    public PersistenceExecutor(int threads, int queueCapacity, boolean virtualThreads, @NotNull Logger logger) {
+        this.threads = Math.max(1, threads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.logger = logger;
+        this.permits = new Semaphore(this.threads + this.queueCapacity);
+
+        final ExecutorService virtualService = virtualThreads ? newVirtualThreadExecutor() : null;
+        if (virtualThreads && virtualService == null) {
+            logger.warning("Virtual threads are not supported by this JVM, using platform threads for the database.");
+        }
+
+        this.virtualThreads = virtualService != null;
+        this.running = this.virtualThreads ? new Semaphore(this.threads) : null;
+        this.executorService = virtualService != null ? virtualService : newPlatformThreadExecutor(this.threads, this.queueCapacity);
+    }
+
+    @NotNull
+    private static ExecutorService newPlatformThreadExecutor(int threads, int queueCapacity) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread(runnable, "SafeChat-Persistence-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Create a virtual-thread-per-task executor through reflection, so that
+     * the plugin still runs on JVMs older than 21.
+     *
+     * @return The executor, or null if virtual threads are not available.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            final Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Run a task on this executor.
+     *
+     * @param command The task.
+     * @throws RejectedExecutionException If the executor is full or shut down.
+     */
+    @Override
+    public void execute(@NotNull Runnable command) {
+        if (!permits.tryAcquire()) {
+            throw reject("the persistence queue is full");
+        }
+
+        try {
+            executorService.execute(() -> {
+                try {
+                    run(command);
+                } finally {
+                    completed.increment();
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw reject("the persistence executor is shut down");
+        }
+    }
+
+    private void run(@NotNull Runnable command) {
+        if (running == null) {
+            command.run();
+            return;
+        }
+
+        running.acquireUninterruptibly();
+        try {
+            command.run();
+        } finally {
+            running.release();
+        }
+    }
+
+    @NotNull
+    private RejectedExecutionException reject(@NotNull String reason) {
+        rejected.increment();
+        final long count = rejected.sum();
+        if (count == 1L || count % REJECTION_LOG_INTERVAL == 0L) {
+            logger.warning(String.format("A database task has been rejected because %s (%d rejected so far).", reason, count));
+        }
+        return new RejectedExecutionException(reason);
+    }
+
+    /**
+     * Stop accepting tasks and wait for the submitted ones to complete.
+     * Tasks still running after the timeout are interrupted.
+     *
+     * @param timeoutMillis The maximum time to wait, in milliseconds.
+     */
+    public void shutdown(long timeoutMillis) {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                final int dropped = executorService.shutdownNow().size();
+                logger.warning(String.format("Database tasks did not complete in time, %d queued tasks have been dropped.", dropped));
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The amount of tasks that are waiting or running.
+     */
+    public int getPendingCount() {
+        return threads + queueCapacity - permits.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public boolean isShutdown() {
+        return executorService.isShutdown();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.persistence;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * In-memory flag counters of the online players.
+ * Counters are loaded when a player joins and are updated atomically on
+ * every flag, so punishment decisions never need to query the database.
+ * The database stays the durable backing store.
+ * <p>
+ * Only connected players are cached: a flag that lands after a player has
+ * left is counted against their stored flags without caching them again.
+ */
+public final class PlayerFlagCache {
+
+    /**
+     * Returned by {@link #incrementIfLoaded(UUID, String)} when the player is not cached.
+     */
+    public static final int NOT_LOADED = -1;
+
+    private final Map<UUID, Map<String, AtomicInteger>> flags = new ConcurrentHashMap<>();
+    private final Set<UUID> connected = ConcurrentHashMap.newKeySet();
+    private final Function<UUID, Map<String, Integer>> loader;
+
+    /**
+     * @param loader Reads the current flags of a player from the backing store.
+     */
+    public PlayerFlagCache(@NotNull Function<UUID, Map<String, Integer>> loader) {
+        this.loader = Objects.requireNonNull(loader);
+    }
+
+    @NotNull
+    private Map<String, AtomicInteger> read(@NotNull UUID uuid) {
+        final Map<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+        loader.apply(uuid).forEach((checkName, amount) -> counters.put(checkName, new AtomicInteger(amount)));
+        return counters;
+    }
+
+    /**
+     * Load the flags of a player, replacing what was cached before.
+     * This queries the backing store and must not be called from the main thread.
+     *
+     * @param uuid The player's UUID.
+     */
+    public void load(@NotNull UUID uuid) {
+        connected.add(uuid);
+        flags.put(uuid, read(uuid));
+    }
+
+    /**
+     * Mark a player as connected without loading their flags,
+     * they are loaded on their first flag instead.
+     *
+     * @param uuid The player's UUID.
+     */
+    public void connect(@NotNull UUID uuid) {
+        connected.add(uuid);
+    }
+
+    /**
+     * Increase a flag of a player.
+     * If the player was not loaded (e.g. the plugin was enabled while they were online)
+     * their flags are loaded first, which queries the backing store.
+     *
+     * @param uuid      The player's UUID.
+     * @param checkName The name of the failed check.
+     * @return The amount of flags after the increment.
+     */
+    public int increment(@NotNull UUID uuid, @NotNull String checkName) {
+        Map<String, AtomicInteger> counters = flags.get(uuid);
+        if (counters == null) {
+            // loaded outside of the map, a compute would lock the entry for the whole query.
+            final Map<String, AtomicInteger> loaded = read(uuid);
+            if (!connected.contains(uuid)) {
+                return increment(loaded, checkName);
+            }
+
+            counters = flags.putIfAbsent(uuid, loaded);
+            if (counters == null) {
+                counters = loaded;
+                // the player may have left while loading, after invalidate had already run.
+                if (!connected.contains(uuid)) {
+                    flags.remove(uuid, loaded);
+                }
+            }
+        }
+        return increment(counters, checkName);
+    }
+
+    /**
+     * Increase a flag of a player only if their flags are cached.
+     *
+     * @param uuid      The player's UUID.
+     * @param checkName The name of the failed check.
+     * @return The amount of flags after the increment, or {@link #NOT_LOADED}.
+     */
+    public int incrementIfLoaded(@NotNull UUID uuid, @NotNull String checkName) {
+        final Map<String, AtomicInteger> counters = flags.get(uuid);
+        return counters == null ? NOT_LOADED : increment(counters, checkName);
+    }
+
+    private static int increment(@NotNull Map<String, AtomicInteger> counters, @NotNull String checkName) {
+        return counters.computeIfAbsent(checkName, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /**
+     * Get the cached amount of flags of a player.
+     *
+     * @param uuid      The player's UUID.
+     * @param checkName The name of the check.
+     * @return The amount of flags, 0 if none or if the player is not loaded.
+     */
+    public int get(@NotNull UUID uuid, @NotNull String checkName) {
+        final Map<String, AtomicInteger> counters = flags.get(uuid);
+        if (counters == null) {
+            return 0;
+        }
+        final AtomicInteger counter = counters.get(checkName);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /**
+     * Get a copy of all the cached flags of a player.
+     *
+     * @param uuid The player's UUID.
+     * @return The flags by check name, empty if the player is not loaded.
+     */
+    @NotNull
+    public Map<String, Integer> getAll(@NotNull UUID uuid) {
+        final Map<String, Integer> result = new HashMap<>();
+        final Map<String, AtomicInteger> counters = flags.get(uuid);
+        if (counters != null) {
+            counters.forEach((checkName, counter) -> result.put(checkName, counter.get()));
+        }
+        return result;
+    }
+
+    public boolean isLoaded(@NotNull UUID uuid) {
+        return flags.containsKey(uuid);
+    }
+
+    /**
+     * Drop the flags of a player, usually when they leave.
+     *
+     * @param uuid The player's UUID.
+     */
+    public void invalidate(@NotNull UUID uuid) {
+        connected.remove(uuid);
+        flags.remove(uuid);
+    }
+
+    public void clear() {
+        connected.clear();
+        flags.clear();
+    }
+
+    public int size() {
+        return flags.size();
+    }
+}
@@ -40,11 +40,18 @@ import java.util.Objects;
 
 public final class SafeChatHibernate {
 
+    public static final long DEFAULT_FLUSH_INTERVAL = 5000L;
+    public static final int DEFAULT_FLUSH_SIZE = 256;
+    public static final int DEFAULT_EXECUTOR_QUEUE_SIZE = 512;
+    public static final long DEFAULT_EXECUTOR_SHUTDOWN_TIMEOUT = 10000L;
+
     private final DatabaseConfig dbConfig;
     private final SafeChat safeChat;
     private StandardServiceRegistry stdServiceRegistry;
     private SessionFactory sessionFactory;
     private PlayerDataManager playerDataManager;
+    private FlagWriteBehindQueue flagQueue;
+    private PersistenceExecutor persistenceExecutor;
     private HibernateSQLMapping hibernateSQLMapping;
     private final ClassLoader pluginClassLoader;
 
@@ -73,6 +80,13 @@ public final class SafeChatHibernate {
     }
 
     public void shutdown() {
+        if (persistenceExecutor != null) {
+            final Long timeout = dbConfig.getConfigValue(DatabaseSection.EXECUTOR_SHUTDOWN_TIMEOUT);
+            persistenceExecutor.shutdown(timeout == null ? DEFAULT_EXECUTOR_SHUTDOWN_TIMEOUT : timeout);
+        }
+        if (flagQueue != null) {
+            flagQueue.shutdown();
+        }
         if (stdServiceRegistry != null) {
             stdServiceRegistry.close();
             StandardServiceRegistryBuilder.destroy(stdServiceRegistry);
@@ -107,8 +121,29 @@ public final class SafeChatHibernate {
         }
     }
 
+    /**
+     * Setups the executor that runs the database work.
+     * Its size follows the connection pool size.
+     */
+    public void setupPersistenceExecutor() {
+        final Long queueSize = dbConfig.getConfigValue(DatabaseSection.EXECUTOR_QUEUE_SIZE);
+        final Boolean virtualThreads = dbConfig.getConfigValue(DatabaseSection.EXECUTOR_VIRTUAL_THREADS);
+
+        persistenceExecutor = new PersistenceExecutor(dbConfig.getPoolSize(),
+                queueSize == null ? DEFAULT_EXECUTOR_QUEUE_SIZE : queueSize.intValue(),
+                virtualThreads != null && virtualThreads,
+                safeChat.getLogger());
+    }
+
     public void setupPlayerDataManager() {
-        playerDataManager = new PlayerDataManager(Objects.requireNonNull(sessionFactory), safeChat);
+        final Long flushInterval = dbConfig.getConfigValue(DatabaseSection.FLUSH_INTERVAL);
+        final Long flushSize = dbConfig.getConfigValue(DatabaseSection.FLUSH_SIZE);
+
+        flagQueue = new FlagWriteBehindQueue(Objects.requireNonNull(sessionFactory), safeChat, Objects.requireNonNull(persistenceExecutor), hibernateSQLMapping.getUpsertSyntax(),
+                flushInterval == null ? DEFAULT_FLUSH_INTERVAL : flushInterval,
+                flushSize == null ? DEFAULT_FLUSH_SIZE : flushSize.intValue());
+        flagQueue.start();
+        playerDataManager = new PlayerDataManager(sessionFactory, safeChat, flagQueue, Objects.requireNonNull(persistenceExecutor));
     }
 
     @Nullable
@@ -125,4 +160,14 @@ public final class SafeChatHibernate {
     public PlayerDataManager getPlayerDataManager() {
         return playerDataManager;
     }
+
+    @Nullable
+    public FlagWriteBehindQueue getFlagQueue() {
+        return flagQueue;
+    }
+
+    @Nullable
+    public PersistenceExecutor getPersistenceExecutor() {
+        return persistenceExecutor;
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.persistence;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The single-statement upsert syntax supported by a database.
+ * Every flag increment is one round-trip that the database applies atomically,
+ * so concurrent increments of the same flag are never lost.
+ */
+public enum UpsertSyntax {
+    /**
+     * PostgreSQL and compatible databases.
+     */
+    ON_CONFLICT("INSERT INTO player_data (uuid, name) VALUES (?, ?) " +
+            "ON CONFLICT (uuid) DO UPDATE SET name = EXCLUDED.name",
+            "INSERT INTO flag_mapping (flag_id, flag_name, flags) VALUES (?, ?, ?) " +
+                    "ON CONFLICT (flag_id, flag_name) DO UPDATE SET flags = flag_mapping.flags + EXCLUDED.flags"),
+    /**
+     * MySQL and MariaDB.
+     */
+    ON_DUPLICATE_KEY("INSERT INTO player_data (uuid, name) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name)",
+            "INSERT INTO flag_mapping (flag_id, flag_name, flags) VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE flags = flags + VALUES(flags)"),
+    /**
+     * SQL standard MERGE (H2, HyperSQL, DB2).
+     */
+    MERGE(mergePlayer(""), mergeFlag("")),
+    /**
+     * SQL Server MERGE, which needs a range lock to be atomic.
+     */
+    MERGE_HOLDLOCK(mergePlayer(" WITH (HOLDLOCK)") + ";", mergeFlag(" WITH (HOLDLOCK)") + ";");
+
+    private final String playerUpsertSql;
+    private final String flagUpsertSql;
+
+    UpsertSyntax(@NotNull String playerUpsertSql, @NotNull String flagUpsertSql) {
+        this.playerUpsertSql = playerUpsertSql;
+        this.flagUpsertSql = flagUpsertSql;
+    }
+
+    @NotNull
+    private static String mergePlayer(@NotNull String hint) {
+        return "MERGE INTO player_data" + hint + " AS t " +
+                "USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)))) AS s (uuid, name) " +
+                "ON t.uuid = s.uuid " +
+                "WHEN MATCHED THEN UPDATE SET name = s.name " +
+                "WHEN NOT MATCHED THEN INSERT (uuid, name) VALUES (s.uuid, s.name)";
+    }
+
+    @NotNull
+    private static String mergeFlag(@NotNull String hint) {
+        return "MERGE INTO flag_mapping" + hint + " AS t " +
+                "USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS INTEGER))) AS s (flag_id, flag_name, flags) " +
+                "ON t.flag_id = s.flag_id AND t.flag_name = s.flag_name " +
+                "WHEN MATCHED THEN UPDATE SET flags = t.flags + s.flags " +
+                "WHEN NOT MATCHED THEN INSERT (flag_id, flag_name, flags) VALUES (s.flag_id, s.flag_name, s.flags)";
+    }
+
+    /**
+     * Insert the players, or update their names if they already exist.
+     *
+     * @param connection The connection to use.
+     * @param names      The players' names, by UUID.
+     * @throws SQLException If the statement fails.
+     */
+    public void upsertPlayers(@NotNull Connection connection, @NotNull Map<UUID, String> names) throws SQLException {
+        if (names.isEmpty()) {
+            return;
+        }
+
+        try (final PreparedStatement statement = connection.prepareStatement(playerUpsertSql)) {
+            for (final Map.Entry<UUID, String> entry : names.entrySet()) {
+                statement.setString(1, entry.getKey().toString());
+                statement.setString(2, entry.getValue());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Add amounts to the flags of players, creating the flags that do not exist.
+     * The players must already exist.
+     *
+     * @param connection The connection to use.
+     * @param amounts    The amounts to add, by (player, check).
+     * @throws SQLException If the statement fails.
+     */
+    public void incrementFlags(@NotNull Connection connection, @NotNull Map<FlagWriteBehindQueue.FlagKey, Integer> amounts) throws SQLException {
+        if (amounts.isEmpty()) {
+            return;
+        }
+
+        try (final PreparedStatement statement = connection.prepareStatement(flagUpsertSql)) {
+            for (final Map.Entry<FlagWriteBehindQueue.FlagKey, Integer> entry : amounts.entrySet()) {
+                statement.setString(1, entry.getKey().uuid().toString());
+                statement.setString(2, entry.getKey().checkName());
+                statement.setInt(3, entry.getValue());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    @NotNull
+    public String getPlayerUpsertSql() {
+        return playerUpsertSql;
+    }
+
+    @NotNull
+    public String getFlagUpsertSql() {
+        return flagUpsertSql;
+    }
+}
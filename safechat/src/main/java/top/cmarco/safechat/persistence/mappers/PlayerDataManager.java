@@ -28,21 +28,54 @@ import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.jetbrains.annotations.NotNull;
 import top.cmarco.safechat.SafeChat;
+import top.cmarco.safechat.persistence.FlagWriteBehindQueue;
+import top.cmarco.safechat.persistence.PersistenceExecutor;
+import top.cmarco.safechat.persistence.PlayerFlagCache;
 import top.cmarco.safechat.persistence.types.PlayerData;
+import top.cmarco.safechat.statistics.StatisticsRegistry;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 public final class PlayerDataManager {
 
+    public static final String ADD_PLAYER_OPERATION = "add-player";
+    public static final String LOAD_FLAGS_OPERATION = "load-flags";
+    public static final String GET_PLAYER_OPERATION = "get-player";
+
     private final SessionFactory sessionFactory;
     private final SafeChat safeChat;
+    private final FlagWriteBehindQueue flagQueue;
+    private final PlayerFlagCache flagCache;
+    private final PersistenceExecutor executor;
+    private final StatisticsRegistry statistics;
 
-    public PlayerDataManager(@NotNull SessionFactory sessionFactory, @NotNull SafeChat safeChat) {
+    public PlayerDataManager(@NotNull SessionFactory sessionFactory, @NotNull SafeChat safeChat, @NotNull FlagWriteBehindQueue flagQueue, @NotNull PersistenceExecutor executor) {
         this.sessionFactory = sessionFactory;
         this.safeChat = safeChat;
+        this.flagQueue = flagQueue;
+        this.executor = executor;
+        this.flagCache = new PlayerFlagCache(this::loadFlags);
+        this.statistics = safeChat.getStatistics();
+    }
+
+    /**
+     * Complete a future on the persistence executor.
+     * If the executor rejects the work the future is completed exceptionally,
+     * so callers never see the rejection as a synchronous exception.
+     */
+    private <T> void submit(@NotNull CompletableFuture<T> future, @NotNull Supplier<T> supplier) {
+        try {
+            future.completeAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
     }
 
     public static void increasePlayerFlag(@NotNull PlayerData playerData, @NotNull String checkName) {
@@ -55,7 +88,11 @@ public final class PlayerDataManager {
     }
 
     public CompletableFuture<Void> addPlayerData(@NotNull UUID uuid, @NotNull String username) {
-        return CompletableFuture.runAsync(() -> {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        submit(future, () -> {
+            final long start = System.nanoTime();
+            boolean failed = false;
             Transaction transaction = null;
             try (final Session session = sessionFactory.openSession()) {
                 transaction = session.beginTransaction();
@@ -64,52 +101,138 @@ public final class PlayerDataManager {
                 playerData.setName(username);
                 session.save(playerData);
             } catch (HibernateException e) {
+                failed = true;
                 if (transaction != null) {
                     transaction.rollback();
                 }
                 safeChat.getLogger().warning(e.getLocalizedMessage());
+            } finally {
+                statistics.recordDatabase(ADD_PLAYER_OPERATION, start, failed);
             }
+            return null;
         });
+
+        return future;
     }
 
     public void addPlayerData(@NotNull Player player) {
         addPlayerData(player.getUniqueId(), player.getName());
     }
 
-    public void addOrUpdatePlayerData(@NotNull Player player, @NotNull String checkName) {
-        Transaction transaction = null;
+    /**
+     * Increase a flag of a player.
+     * The cached counter is updated immediately, while the increment is
+     * queued and written to the database later.
+     *
+     * @param player    The player.
+     * @param checkName The name of the failed check.
+     * @return The amount of flags the player has for this check, after the increment.
+     */
+    public int addOrUpdatePlayerData(@NotNull Player player, @NotNull String checkName) {
         final UUID uuid = player.getUniqueId();
-        try (final Session session = sessionFactory.openSession()) {
-            transaction = session.beginTransaction();
+        final int flags = flagCache.increment(uuid, checkName);
+        flagQueue.increment(uuid, player.getName(), checkName);
+        return flags;
+    }
 
-            PlayerData playerData = session.get(PlayerData.class, uuid.toString());
+    /**
+     * Increase a flag of a player without ever blocking the caller on the database.
+     * When the flags of the player are cached the increment completes immediately,
+     * otherwise they are loaded first on the persistence executor.
+     *
+     * @param player    The player.
+     * @param checkName The name of the failed check.
+     * @return The amount of flags the player has for this check, after the increment.
+     */
+    @NotNull
+    public CompletableFuture<Integer> incrementFlag(@NotNull Player player, @NotNull String checkName) {
+        final UUID uuid = player.getUniqueId();
+        final int flags = flagCache.incrementIfLoaded(uuid, checkName);
+        if (flags != PlayerFlagCache.NOT_LOADED) {
+            flagQueue.increment(uuid, player.getName(), checkName);
+            return CompletableFuture.completedFuture(flags);
+        }
 
-            if (playerData == null) {
-                playerData = new PlayerData();
-                playerData.setName(player.getName());
-                playerData.setUuid(uuid.toString());
-                increasePlayerFlag(playerData, checkName);
-                session.save(playerData);
-            } else {
-                increasePlayerFlag(playerData, checkName);
-                session.update(playerData);
-            }
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        submit(future, () -> addOrUpdatePlayerData(player, checkName));
+        return future;
+    }
 
-            transaction.commit();
-        } catch (HibernateException e) {
-            if (transaction != null) {
-                transaction.rollback();
-            }
-            safeChat.getLogger().warning(e.getLocalizedMessage());
+    /**
+     * Get the amount of flags a player has for a check, without blocking the caller on the database.
+     *
+     * @param player    The player.
+     * @param checkName The name of the check.
+     * @return The amount of flags, 0 if none.
+     */
+    @NotNull
+    public CompletableFuture<Integer> getFlags(@NotNull Player player, @NotNull String checkName) {
+        final UUID uuid = player.getUniqueId();
+        if (flagCache.isLoaded(uuid)) {
+            return CompletableFuture.completedFuture(flagCache.get(uuid, checkName));
         }
+
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        submit(future, () -> loadFlags(uuid).getOrDefault(checkName, 0));
+        return future;
+    }
+
+    /**
+     * Read the flags of a player from the database, including the increments
+     * that were not written yet. This blocks on the database.
+     *
+     * @param uuid The player's UUID.
+     * @return The flags by check name, empty if the player has none or the query failed.
+     */
+    @NotNull
+    public Map<String, Integer> loadFlags(@NotNull UUID uuid) {
+        return flagQueue.readConsistent(() -> {
+            final Map<String, Integer> flags = new HashMap<>();
+            final long start = System.nanoTime();
+            boolean failed = false;
+            Transaction transaction = null;
+
+            try (final Session session = sessionFactory.openSession()) {
+                transaction = session.beginTransaction();
+
+                final TypedQuery<PlayerData> query = session.createQuery("SELECT a FROM PlayerData a LEFT JOIN FETCH a.flagsMap WHERE a.uuid= :uuid", PlayerData.class);
+                query.setParameter("uuid", uuid.toString());
+
+                final List<PlayerData> result = query.getResultList();
+
+                transaction.commit();
+
+                if (!result.isEmpty()) {
+                    flags.putAll(result.get(0).getFlagsMap());
+                }
+            } catch (HibernateException e) {
+                failed = true;
+                if (transaction != null) {
+                    transaction.rollback();
+                }
+                safeChat.getLogger().warning(e.getLocalizedMessage());
+            } finally {
+                statistics.recordDatabase(LOAD_FLAGS_OPERATION, start, failed);
+            }
+
+            flagQueue.getPending(uuid).forEach((checkName, amount) -> flags.merge(checkName, amount, Integer::sum));
+            return flags;
+        });
+    }
+
+    private void applyPendingFlags(@NotNull PlayerData playerData) {
+        final Map<String, Integer> pending = flagQueue.getPending(UUID.fromString(playerData.getUuid()));
+        pending.forEach((checkName, amount) -> playerData.getFlagsMap().merge(checkName, amount, Integer::sum));
     }
 
     @NotNull
     public CompletableFuture<PlayerData> getPlayerData(@NotNull Player player) {
         CompletableFuture<PlayerData> future = new CompletableFuture<>();
 
-        future.completeAsync(() -> {
+        submit(future, () -> {
             final UUID uuid = player.getUniqueId();
+            final long start = System.nanoTime();
+            boolean failed = false;
             Transaction transaction = null;
 
             try (final Session session = sessionFactory.openSession()) {
@@ -122,14 +245,25 @@ public final class PlayerDataManager {
 
                 transaction.commit();
 
+                applyPendingFlags(resultData);
                 return resultData;
             } catch (NoResultException ignored) {
-
+                final Map<String, Integer> pending = flagQueue.getPending(uuid);
+                if (!pending.isEmpty()) {
+                    final PlayerData pendingData = new PlayerData();
+                    pendingData.setUuid(uuid.toString());
+                    pendingData.setName(player.getName());
+                    pendingData.setFlagsMap(pending);
+                    return pendingData;
+                }
             } catch (HibernateException e) {
+                failed = true;
                 if (transaction != null) {
                     transaction.rollback();
                 }
                 safeChat.getLogger().warning(e.getLocalizedMessage());
+            } finally {
+                statistics.recordDatabase(GET_PLAYER_OPERATION, start, failed);
             }
             return null;
         });
@@ -141,7 +275,9 @@ public final class PlayerDataManager {
     public CompletableFuture<PlayerData> getPlayerData(@NotNull String username) {
         CompletableFuture<PlayerData> future = new CompletableFuture<>();
 
-        future.completeAsync(() -> {
+        submit(future, () -> {
+            final long start = System.nanoTime();
+            boolean failed = false;
             Transaction transaction = null;
             try (final Session session = sessionFactory.openSession()) {
                 transaction = session.beginTransaction();
@@ -154,14 +290,18 @@ public final class PlayerDataManager {
 
                 transaction.commit();
 
+                applyPendingFlags(resultData);
                 return resultData;
             } catch (NoResultException noResultException) {
                 return null;
             } catch (HibernateException exception) {
+                failed = true;
                 if (transaction != null) {
                     transaction.rollback();
                 }
                 safeChat.getLogger().warning(exception.getLocalizedMessage());
+            } finally {
+                statistics.recordDatabase(GET_PLAYER_OPERATION, start, failed);
             }
             return null;
         });
@@ -178,4 +318,19 @@ public final class PlayerDataManager {
     public SafeChat getSafeChat() {
         return safeChat;
     }
+
+    @NotNull
+    public FlagWriteBehindQueue getFlagQueue() {
+        return flagQueue;
+    }
+
+    @NotNull
+    public PlayerFlagCache getFlagCache() {
+        return flagCache;
+    }
+
+    @NotNull
+    public PersistenceExecutor getExecutor() {
+        return executor;
+    }
 }
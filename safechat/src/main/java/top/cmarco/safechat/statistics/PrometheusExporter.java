@@ -0,0 +1,223 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.statistics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import top.cmarco.safechat.config.settings.ExporterSettings;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+
+/**
+ * Serves the collected statistics in the Prometheus text format, on the
+ * HTTP server embedded in the JDK. Every scrape only reads the adders and
+ * copies the histograms of the {@link StatisticsRegistry}, on its own thread,
+ * so scraping adds nothing to the chat path.
+ */
+public final class PrometheusExporter {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0D;
+    private static final double[] QUANTILES = {0.5D, 0.9D, 0.99D, 0.999D};
+
+    private final StatisticsRegistry statistics;
+    private final ExporterSettings settings;
+    private final List<SampledMetric> sampledMetrics = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public PrometheusExporter(@NotNull StatisticsRegistry statistics, @NotNull ExporterSettings settings) {
+        this.statistics = Objects.requireNonNull(statistics);
+        this.settings = Objects.requireNonNull(settings);
+    }
+
+    /**
+     * Export a value that is not held by the registry, sampled at every scrape.
+     *
+     * @param name    The metric name.
+     * @param help    The metric description.
+     * @param counter True for a counter, false for a gauge.
+     * @param sampler Reads the current value.
+     */
+    public void sample(@NotNull String name, @NotNull String help, boolean counter, @NotNull LongSupplier sampler) {
+        sampledMetrics.add(new SampledMetric(name, help, counter ? "counter" : "gauge", sampler));
+    }
+
+    /**
+     * Start listening.
+     *
+     * @throws IOException If the address could not be bound.
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(settings.bindAddress(), settings.port()), 0);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "SafeChat-Metrics-Exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(settings.path(), this::handle);
+        server.start();
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            executor = null;
+        }
+    }
+
+    private void handle(@NotNull HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!settings.path().equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1L);
+                return;
+            }
+            final String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1L);
+                return;
+            }
+
+            final byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1L);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (final OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+    }
+
+    /**
+     * @return Every metric, in the Prometheus text format.
+     */
+    @NotNull
+    public String scrape() {
+        final StringBuilder builder = new StringBuilder(4096);
+
+        header(builder, "safechat_chat_events_total", "Chat messages that went through the checks.", "counter");
+        builder.append("safechat_chat_events_total ").append(statistics.getChatEvents()).append('\n');
+        header(builder, "safechat_punishments_total", "Punishment commands dispatched.", "counter");
+        builder.append("safechat_punishments_total ").append(statistics.getPunishments()).append('\n');
+
+        final List<OperationStatistics> checks = StatisticsReport.sorted(statistics.getChecks());
+        operations(builder, "safechat_check", "check", "checks", "failed", checks);
+
+        final List<OperationStatistics> database = StatisticsReport.sorted(statistics.getDatabase());
+        operations(builder, "safechat_database", "operation", "database operations", "errored", database);
+
+        for (final SampledMetric metric : sampledMetrics) {
+            header(builder, metric.name(), metric.help(), metric.type());
+            builder.append(metric.name()).append(' ').append(metric.sampler().getAsLong()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static void operations(@NotNull StringBuilder builder, @NotNull String prefix, @NotNull String label,
+                                   @NotNull String description, @NotNull String failed, @NotNull List<OperationStatistics> operations) {
+        header(builder, prefix + "_invocations_total", "Invocations of the " + description + ".", "counter");
+        for (final OperationStatistics operation : operations) {
+            sample(builder, prefix + "_invocations_total", label, operation.getName(), null).append(operation.getInvocations()).append('\n');
+        }
+
+        header(builder, prefix + "_failures_total", "Invocations of the " + description + " that " + failed + ".", "counter");
+        for (final OperationStatistics operation : operations) {
+            sample(builder, prefix + "_failures_total", label, operation.getName(), null).append(operation.getFailures()).append('\n');
+        }
+
+        final String latency = prefix + "_latency_seconds";
+        header(builder, latency, "Latency of the " + description + ".", "summary");
+        for (final OperationStatistics operation : operations) {
+            final LatencyHistogram.Snapshot snapshot = operation.getLatency().snapshot();
+            for (final double quantile : QUANTILES) {
+                sample(builder, latency, label, operation.getName(), quantile)
+                        .append(seconds(snapshot.percentile(quantile * 100.0D))).append('\n');
+            }
+            sample(builder, latency + "_sum", label, operation.getName(), null).append(seconds(snapshot.getSum())).append('\n');
+            sample(builder, latency + "_count", label, operation.getName(), null).append(snapshot.getCount()).append('\n');
+        }
+    }
+
+    private static void header(@NotNull StringBuilder builder, @NotNull String name, @NotNull String help, @NotNull String type) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    @NotNull
+    private static StringBuilder sample(@NotNull StringBuilder builder, @NotNull String name, @NotNull String label,
+                                        @NotNull String value, @Nullable Double quantile) {
+        builder.append(name).append('{').append(label).append("=\"");
+        escape(builder, value);
+        builder.append('"');
+        if (quantile != null) {
+            builder.append(",quantile=\"").append(quantile).append('"');
+        }
+        return builder.append("} ");
+    }
+
+    private static void escape(@NotNull StringBuilder builder, @NotNull String value) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '\\') {
+                builder.append("\\\\");
+            } else if (c == '"') {
+                builder.append("\\\"");
+            } else if (c == '\n') {
+                builder.append("\\n");
+            } else {
+                builder.append(c);
+            }
+        }
+    }
+
+    @NotNull
+    private static String seconds(double nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / NANOS_PER_SECOND);
+    }
+
+    @NotNull
+    public ExporterSettings getSettings() {
+        return settings;
+    }
+
+    private record SampledMetric(@NotNull String name, @NotNull String help, @NotNull String type, @NotNull LongSupplier sampler) {
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.statistics;
+
+import org.jetbrains.annotations.NotNull;
+import top.cmarco.safechat.api.checks.ChatData;
+import top.cmarco.safechat.api.checks.Check;
+import top.cmarco.safechat.api.checks.CheckVerdict;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the statistics of the checks and of the database operations.
+ * Recording only costs two {@link System#nanoTime()} calls and a few
+ * uncontended adders, and nothing at all while disabled.
+ */
+public final class StatisticsRegistry {
+
+    private final Map<String, OperationStatistics> checks = new ConcurrentHashMap<>();
+    private final Map<String, OperationStatistics> database = new ConcurrentHashMap<>();
+    private final LongAdder chatEvents = new LongAdder();
+    private final LongAdder punishments = new LongAdder();
+    private final LongAdder unreportedFailures = new LongAdder();
+    private final long startedAt = System.currentTimeMillis();
+    private volatile boolean enabled = true;
+
+    /**
+     * Run a check, measuring it if the statistics are enabled.
+     *
+     * @param check The check.
+     * @param data  The chat data.
+     * @return The verdict of the check.
+     */
+    @NotNull
+    public CheckVerdict runCheck(@NotNull Check check, @NotNull ChatData data) {
+        if (!enabled) {
+            return check.evaluate(data);
+        }
+
+        final long start = System.nanoTime();
+        final CheckVerdict verdict = check.evaluate(data);
+        final boolean failed = verdict.isFailed();
+        check(check.getName()).record(System.nanoTime() - start, failed);
+        if (failed) {
+            unreportedFailures.increment();
+        }
+        return verdict;
+    }
+
+    /**
+     * Count a chat message going through the checks.
+     */
+    public void recordChatEvent() {
+        if (enabled) {
+            chatEvents.increment();
+        }
+    }
+
+    /**
+     * Count a dispatched punishment.
+     */
+    public void recordPunishment() {
+        if (enabled) {
+            punishments.increment();
+        }
+    }
+
+    /**
+     * Record a database operation.
+     *
+     * @param operation The name of the operation.
+     * @param start     The {@link System#nanoTime()} at which it started.
+     * @param failed    Whether it errored.
+     */
+    public void recordDatabase(@NotNull String operation, long start, boolean failed) {
+        if (enabled) {
+            database.computeIfAbsent(operation, OperationStatistics::new).record(System.nanoTime() - start, failed);
+        }
+    }
+
+    @NotNull
+    private OperationStatistics check(@NotNull String name) {
+        final OperationStatistics statistics = checks.get(name);
+        return statistics != null ? statistics : checks.computeIfAbsent(name, OperationStatistics::new);
+    }
+
+    /**
+     * Get the failed checks since the last call, for the bStats chart.
+     *
+     * @return The amount of failed checks.
+     */
+    public int takeUnreportedFailures() {
+        return (int) Math.min(Integer.MAX_VALUE, unreportedFailures.sumThenReset());
+    }
+
+    @NotNull
+    public Collection<OperationStatistics> getChecks() {
+        return Collections.unmodifiableCollection(checks.values());
+    }
+
+    @NotNull
+    public Collection<OperationStatistics> getDatabase() {
+        return Collections.unmodifiableCollection(database.values());
+    }
+
+    public long getChatEvents() {
+        return chatEvents.sum();
+    }
+
+    public long getPunishments() {
+        return punishments.sum();
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
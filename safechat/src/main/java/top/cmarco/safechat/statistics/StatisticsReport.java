@@ -0,0 +1,115 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.statistics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Formats the collected statistics, for the statistics dump file.
+ */
+public final class StatisticsReport {
+
+    private StatisticsReport() {
+        throw new UnsupportedOperationException("Report class cannot be instantiated.");
+    }
+
+    /**
+     * @param nanos A duration in nanoseconds.
+     * @return The duration in the most readable unit.
+     */
+    @NotNull
+    public static String formatDuration(double nanos) {
+        if (nanos < 1_000.0D) {
+            return String.format(Locale.ROOT, "%.0fns", nanos);
+        } else if (nanos < 1_000_000.0D) {
+            return String.format(Locale.ROOT, "%.1fµs", nanos / 1_000.0D);
+        } else if (nanos < 1_000_000_000.0D) {
+            return String.format(Locale.ROOT, "%.1fms", nanos / 1_000_000.0D);
+        }
+        return String.format(Locale.ROOT, "%.2fs", nanos / 1_000_000_000.0D);
+    }
+
+    /**
+     * @param statistics The statistics.
+     * @return The ratio of failures, in percent.
+     */
+    public static double failureRate(@NotNull OperationStatistics statistics) {
+        final long invocations = statistics.getInvocations();
+        return invocations == 0L ? 0.0D : 100.0D * statistics.getFailures() / invocations;
+    }
+
+    /**
+     * @param statistics Some statistics.
+     * @return A copy of them, sorted by name.
+     */
+    @NotNull
+    public static List<OperationStatistics> sorted(@NotNull Iterable<OperationStatistics> statistics) {
+        final List<OperationStatistics> list = new ArrayList<>();
+        statistics.forEach(list::add);
+        list.sort(Comparator.comparing(OperationStatistics::getName));
+        return list;
+    }
+
+    @NotNull
+    public static List<String> format(@NotNull StatisticsRegistry registry) {
+        final List<String> lines = new ArrayList<>();
+        lines.add("SafeChat statistics at " + Instant.now() + ", collected since " + Instant.ofEpochMilli(registry.getStartedAt()));
+        lines.add("");
+        lines.add("Checks (failed = the check was failed):");
+        sorted(registry.getChecks()).forEach(statistics -> lines.add(format(statistics)));
+        lines.add("");
+        lines.add("Database (failed = the operation errored):");
+        sorted(registry.getDatabase()).forEach(statistics -> lines.add(format(statistics)));
+        return lines;
+    }
+
+    @NotNull
+    private static String format(@NotNull OperationStatistics statistics) {
+        final LatencyHistogram.Snapshot latency = statistics.getLatency().snapshot();
+        return String.format(Locale.ROOT, "  %s: %d calls, %d failed (%.2f%%), mean %s, p50 %s, p90 %s, p99 %s, p99.9 %s, max %s",
+                statistics.getName(), statistics.getInvocations(), statistics.getFailures(), failureRate(statistics),
+                formatDuration(latency.getMean()), formatDuration(latency.percentile(50.0D)), formatDuration(latency.percentile(90.0D)),
+                formatDuration(latency.percentile(99.0D)), formatDuration(latency.percentile(99.9D)), formatDuration(latency.getMax()));
+    }
+
+    /**
+     * Write the report to a file, replacing it atomically so that readers never see a partial report.
+     *
+     * @param registry The statistics.
+     * @param file     The file.
+     * @throws IOException If the file could not be written.
+     */
+    public static void dump(@NotNull StatisticsRegistry registry, @NotNull Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temporary, format(registry), StandardCharsets.UTF_8);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
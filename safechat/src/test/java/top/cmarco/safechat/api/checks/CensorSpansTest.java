@@ -0,0 +1,134 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package top.cmarco.safechat.api.checks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the merging of the spans and the masking of the message.
+ */
+final class CensorSpansTest {
+
+    @Test
+    void mergesOverlappingAndTouchingSpans() {
+        final CensorSpans spans = new CensorSpans();
+        spans.add(10, 12);
+        spans.add(0, 3);
+        spans.add(2, 5);
+        spans.add(5, 7);
+        spans.add(20, 25);
+        spans.add(21, 22);
+        assertArrayEquals(new int[]{0, 7, 10, 12, 20, 25}, spans.toArray());
+
+        // adding after a merge merges again.
+        spans.add(11, 21);
+        assertArrayEquals(new int[]{0, 7, 10, 25}, spans.toArray());
+    }
+
+    @Test
+    void ignoresInvalidSpans() {
+        final CensorSpans spans = new CensorSpans();
+        spans.add(3, 3);
+        spans.add(5, 2);
+        spans.add(-1, 4);
+        assertTrue(spans.isEmpty());
+        assertArrayEquals(new int[0], spans.toArray());
+        assertEquals("hello", spans.apply("hello"));
+    }
+
+    @Test
+    void addsTheSpansOfAVerdict() {
+        final CensorSpans found = new CensorSpans();
+        found.add(0, 2);
+        found.add(4, 6);
+
+        final CensorSpans spans = new CensorSpans();
+        spans.addAll(CheckVerdict.censor(found));
+        assertFalse(spans.isEmpty());
+        assertArrayEquals(new int[]{0, 2, 4, 6}, spans.toArray());
+    }
+
+    @Test
+    void masksEveryCodePointButWhitespace() {
+        final CensorSpans spans = new CensorSpans();
+        spans.add(4, 13);
+        assertEquals("you *** ***** now", spans.apply("you are idiot now"));
+
+        // a supplementary code point is masked once.
+        final CensorSpans emoji = new CensorSpans();
+        emoji.add(2, 6);
+        assertEquals("a *** b", emoji.apply("a x😀y b"));
+
+        // spans past the end are clamped.
+        final CensorSpans past = new CensorSpans();
+        past.add(3, 100);
+        assertEquals("abc**", past.apply("abcde"));
+    }
+
+    @Test
+    void matchesAMaskOnRandomSpans() {
+        final Random random = new Random(1L);
+        final String alphabet = "ab \tc";
+
+        for (int n = 0; n < 10_000; n++) {
+            final char[] chars = new char[1 + random.nextInt(30)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            final String message = new String(chars);
+
+            final CensorSpans spans = new CensorSpans();
+            final boolean[] masked = new boolean[chars.length];
+            final int count = random.nextInt(8);
+            for (int s = 0; s < count; s++) {
+                final int start = random.nextInt(chars.length);
+                final int end = start + 1 + random.nextInt(chars.length - start);
+                spans.add(start, end);
+                for (int i = start; i < end; i++) {
+                    masked[i] = true;
+                }
+            }
+
+            final char[] expected = chars.clone();
+            for (int i = 0; i < expected.length; i++) {
+                if (masked[i] && !Character.isWhitespace(expected[i])) {
+                    expected[i] = CensorSpans.MASK;
+                }
+            }
+            assertEquals(new String(expected), spans.apply(message), "[" + message + "]");
+
+            // merged spans are sorted, disjoint and not touching.
+            final int[] merged = spans.toArray();
+            for (int i = 0; i < merged.length; i += 2) {
+                assertTrue(merged[i] < merged[i + 1]);
+                if (i > 0) {
+                    assertTrue(merged[i - 1] < merged[i]);
+                }
+            }
+        }
+    }
+}
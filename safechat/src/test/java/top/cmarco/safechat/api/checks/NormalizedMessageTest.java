@@ -0,0 +1,107 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package top.cmarco.safechat.api.checks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks every view against the regex or split it replaces.
+ */
+final class NormalizedMessageTest {
+
+    // Bukkit's ChatColor.stripColor pattern.
+    private static final Pattern STRIP_COLOR = Pattern.compile("(?i)§[0-9A-FK-ORX]");
+    private static final int MESSAGES = 20_000;
+
+    // whitespace, \s and not, color codes, and surrogate pairs that are letters (𝐀) or not (😀).
+    private static final String[] FRAGMENTS = {"a", "B", "é", "Ö", "1", " ", "  ", "\t", "\n", "\r", "\u000B", "\f",
+            " ", " ", "§", "§a", "§L", "§z", "&", "&c", ".", "!", "-", "𝐀", "😀", "ß"};
+
+    private static String randomMessage(Random random) {
+        final StringBuilder builder = new StringBuilder();
+        final int parts = random.nextInt(12);
+        for (int i = 0; i < parts; i++) {
+            builder.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+        return builder.toString();
+    }
+
+    private static int uppercaseCount(String message) {
+        int count = 0;
+        for (final char c : message.toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void assertViews(String message) {
+        final NormalizedMessage normalized = NormalizedMessage.of(message);
+        final String context = "[" + message + "]";
+
+        assertEquals(message, normalized.getOriginal(), context);
+        assertEquals(ChatCheck.ABNORMAL_CHARACTERS.matcher(message).replaceAll(""), normalized.getStripped(), context);
+        assertEquals(STRIP_COLOR.matcher(message).replaceAll(""), normalized.getColorStripped(), context);
+        assertEquals(uppercaseCount(message), normalized.getUppercaseCount(), context);
+
+        final String[] tokens = ChatCheck.SPLIT_SPACE.split(message);
+        assertArrayEquals(tokens, normalized.getTokens(), context);
+        assertEquals(tokens.length, normalized.getTokenCount(), context);
+        for (int i = 0; i < tokens.length; i++) {
+            assertEquals(tokens[i], message.substring(normalized.getTokenStart(i), normalized.getTokenEnd(i)), context);
+        }
+    }
+
+    @Test
+    void matchesRegexesAndSplitOnRandomMessages() {
+        final Random random = new Random(1L);
+        for (int n = 0; n < MESSAGES; n++) {
+            assertViews(randomMessage(random));
+        }
+    }
+
+    @Test
+    void keepsTheEdgesOfSplit() {
+        assertViews("");
+        assertViews(" ");
+        assertViews("  \t ");
+        assertViews(" leading");
+        assertViews("trailing  ");
+        assertViews("\t both \n");
+        assertViews("§§a§Lb§");
+        assertViews("𝐀😀 x");
+
+        // split keeps an empty first token after leading whitespace, and a single one for the empty message.
+        final NormalizedMessage leading = NormalizedMessage.of("  hi there");
+        assertEquals(3, leading.getTokenCount());
+        assertEquals(0, leading.getTokenStart(0));
+        assertEquals(0, leading.getTokenEnd(0));
+        assertEquals(2, leading.getTokenStart(1));
+        assertEquals(1, NormalizedMessage.of("").getTokenCount());
+        assertEquals(0, NormalizedMessage.of("   ").getTokenCount());
+    }
+}
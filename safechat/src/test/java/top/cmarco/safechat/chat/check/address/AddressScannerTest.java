@@ -0,0 +1,128 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.address;
+
+import org.junit.jupiter.api.Test;
+import top.cmarco.safechat.api.checks.CensorSpans;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the scanner against the regexes it replaces, and the whitelist rules.
+ */
+final class AddressScannerTest {
+
+    // the "." and "[.]" forms of the previous DOMAIN_REGEX, and the previous IPV4_REGEX.
+    private static final Pattern DOMAIN_REGEX = Pattern.compile("[a-z0-9\\-]{3,}(\\.|\\[\\.])[a-z]{2,}", Pattern.CASE_INSENSITIVE);
+    private static final Pattern IPV4_REGEX = Pattern.compile("[0-9]{1,3}[.,][0-9]{1,3}[.,][0-9]{1,3}[.,][0-9]{1,3}");
+    private static final int MINIMUM_DOMAIN_CHARS = 6;
+    private static final int MINIMUM_ADDRESS_CHARS = 7;
+    private static final int MESSAGES = 20_000;
+
+    private static final AddressWhitelist WHITELIST = AddressWhitelist.compile(List.of("spigotmc.org", "github.com"), List.of("127.0.0.1"));
+
+    /**
+     * The previous check with an empty whitelist: any match in a long enough token is forbidden.
+     */
+    private static boolean regexForbidden(String message) {
+        for (final String token : message.split(" ")) {
+            if (token.length() >= MINIMUM_DOMAIN_CHARS && DOMAIN_REGEX.matcher(token).find()) {
+                return true;
+            }
+        }
+        for (final String token : message.split(" ")) {
+            if (token.length() >= MINIMUM_ADDRESS_CHARS && IPV4_REGEX.matcher(token).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void matchesRegexesOnRandomMessages() {
+        final Random random = new Random(1L);
+        final String alphabet = "abcDE0129.,-_ [] ";
+        final AddressWhitelist empty = AddressWhitelist.empty();
+
+        for (int n = 0; n < MESSAGES; n++) {
+            final char[] chars = new char[6 + random.nextInt(20)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            final String message = new String(chars);
+            assertEquals(regexForbidden(message), AddressScanner.containsForbidden(message, empty), "[" + message + "]");
+            assertEquals(DOMAIN_REGEX.matcher(message).find(), AddressScanner.containsDomain(message, 0, message.length()), "domain [" + message + "]");
+        }
+    }
+
+    @Test
+    void findsDomainsAndAddresses() {
+        assertTrue(AddressScanner.containsForbidden("join play.example.net now", WHITELIST));
+        assertTrue(AddressScanner.containsForbidden("go to google[.]com", WHITELIST));
+        assertTrue(AddressScanner.containsForbidden("10.0.0.1", WHITELIST));
+        assertTrue(AddressScanner.containsForbidden("1234.5.6.78", WHITELIST));
+        assertFalse(AddressScanner.containsForbidden("hello world", WHITELIST));
+        assertFalse(AddressScanner.containsForbidden("version 1.17.1 ok", WHITELIST));
+        assertFalse(AddressScanner.containsForbidden("e.g. this", WHITELIST));
+        assertFalse(AddressScanner.containsForbidden("ok...sure", WHITELIST));
+        assertFalse(AddressScanner.containsForbidden("cool_guy_xd re-enter-it", WHITELIST));
+    }
+
+    @Test
+    void findsDomainsInPartsOfMessages() {
+        final String message = "SEE SPIGOTMC.ORG/RESOURCES OR 10.0.0.1";
+        assertTrue(AddressScanner.containsDomain(message, 4, 26));
+        assertFalse(AddressScanner.containsDomain(message, 4, 13));
+        assertFalse(AddressScanner.containsDomain(message, 30, message.length()));
+        assertFalse(AddressScanner.containsDomain("hello,world", 0, 11));
+    }
+
+    @Test
+    void allowsWhitelistedSuffixes() {
+        assertFalse(AddressScanner.containsForbidden("spigotmc.org", WHITELIST));
+        assertFalse(AddressScanner.containsForbidden("www.spigotmc.org rocks", WHITELIST));
+        assertFalse(AddressScanner.containsForbidden("see github.com/foo", WHITELIST));
+        assertTrue(AddressScanner.containsForbidden("notspigotmc.org", WHITELIST));
+        assertTrue(AddressScanner.containsForbidden("spigotmc.org.evil.net", WHITELIST));
+    }
+
+    @Test
+    void allowsWhitelistedAddresses() {
+        assertFalse(AddressScanner.containsForbidden("127.0.0.1", WHITELIST));
+        assertFalse(AddressScanner.containsForbidden("127,0,0,1", WHITELIST));
+        assertTrue(AddressScanner.containsForbidden("127.0.0.2", WHITELIST));
+    }
+
+    @Test
+    void findsSpansOfForbiddenHosts() {
+        final String message = "join play.example.net or spigotmc.org";
+        final CensorSpans spans = new CensorSpans();
+        assertTrue(AddressScanner.findForbidden(message, WHITELIST, spans));
+        assertArrayEquals(new int[]{5, 21}, spans.toArray());
+        assertEquals("join **************** or spigotmc.org", spans.apply(message));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package top.cmarco.safechat.chat.check.blacklist;
+
+import org.junit.jupiter.api.Test;
+import top.cmarco.safechat.api.checks.CensorSpans;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the automaton against the exact-match rules of the previous blacklist check.
+ */
+final class BlacklistAutomatonTest {
+
+    // the previous ChatCheck patterns.
+    private static final Pattern ABNORMAL_CHARACTERS = Pattern.compile("[^\\p{L}0-9§&]+");
+    private static final Pattern SPLIT_SPACE = Pattern.compile("\\s+");
+    private static final int MESSAGES = 20_000;
+
+    private static final List<String> WORDS = List.of("bad", "badder", "NoOb", "ez", "dumb word", "ß");
+    private static final BlacklistAutomaton AUTOMATON = BlacklistAutomaton.compile(WORDS);
+
+    /**
+     * The previous exact-match path: a word equal to the whole message or to a token.
+     */
+    private static boolean previousMatch(String s) {
+        final String[] tokens = SPLIT_SPACE.split(s);
+
+        for (final String word : WORDS) {
+            if (word.equalsIgnoreCase(s)) {
+                return true;
+            }
+            for (final String token : tokens) {
+                if (token.equalsIgnoreCase(word)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void matchesPreviousRulesOnRandomMessages() {
+        final Random random = new Random(1L);
+        final String[] fragments = {"bad", "BAD", "der", "no", "Ob", "ez", "EZ", "dumb", "word", "ß", "SS",
+                " ", "  ", "\t", ".", "!", "§", "&", "x", "1"};
+
+        for (int n = 0; n < MESSAGES; n++) {
+            final StringBuilder builder = new StringBuilder();
+            final int parts = 1 + random.nextInt(6);
+            for (int i = 0; i < parts; i++) {
+                builder.append(fragments[random.nextInt(fragments.length)]);
+            }
+            final String message = builder.toString();
+            final String stripped = ABNORMAL_CHARACTERS.matcher(message).replaceAll("");
+
+            assertEquals(previousMatch(message), AUTOMATON.findMatch(message) != null, "[" + message + "]");
+            assertEquals(previousMatch(stripped), AUTOMATON.findMatch(stripped) != null, "stripped [" + message + "]");
+        }
+    }
+
+    @Test
+    void matchesTokensAndWholeMessage() {
+        assertEquals("bad", AUTOMATON.findMatch("you are BAD"));
+        assertEquals("badder", AUTOMATON.findMatch("even badder"));
+        assertEquals("NoOb", AUTOMATON.findMatch("noob\tgame"));
+        assertEquals("dumb word", AUTOMATON.findMatch("Dumb Word"));
+        assertNull(AUTOMATON.findMatch("a dumb word"));
+        assertNull(AUTOMATON.findMatch("badminton"));
+        assertNull(AUTOMATON.findMatch("easy"));
+        assertNull(AUTOMATON.findMatch(""));
+        assertNull(BlacklistAutomaton.empty().findMatch("bad"));
+    }
+
+    @Test
+    void findsSpansOfEveryToken() {
+        final CensorSpans spans = new CensorSpans();
+        assertTrue(AUTOMATON.findSpans("bad and ez, ez noob", spans));
+        assertArrayEquals(new int[]{0, 3, 12, 14, 15, 19}, spans.toArray());
+
+        final CensorSpans none = new CensorSpans();
+        assertFalse(AUTOMATON.findSpans("nothing here", none));
+        assertTrue(none.isEmpty());
+    }
+}
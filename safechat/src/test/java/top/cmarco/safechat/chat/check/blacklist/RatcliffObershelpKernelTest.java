@@ -0,0 +1,109 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.blacklist;
+
+import info.debatty.java.stringsimilarity.RatcliffObershelp;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the kernel and the index against the library implementation they replace.
+ */
+final class RatcliffObershelpKernelTest {
+
+    private static final int PAIRS = 20_000;
+    private static final int LOOKUPS = 5_000;
+    private static final double[] THRESHOLDS = {0.0D, 0.5D, 0.7D, 0.85D, 1.0D};
+
+    private static String randomString(Random random, String alphabet, int maximumLength) {
+        final char[] chars = new char[random.nextInt(maximumLength + 1)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(chars);
+    }
+
+    @Test
+    void matchesLibraryOnRandomPairs() {
+        final RatcliffObershelp library = new RatcliffObershelp();
+        final Random random = new Random(42L);
+
+        for (int i = 0; i < PAIRS; i++) {
+            // a small alphabet gives many common substrings and ties.
+            final String alphabet = i % 2 == 0 ? "abc" : "abcdefghij";
+            final String a = randomString(random, alphabet, 12);
+            final String b = randomString(random, alphabet, 12);
+            if (a.isEmpty() && b.isEmpty()) {
+                continue;
+            }
+
+            final double expected = library.similarity(a, b);
+            assertEquals(expected, RatcliffObershelpKernel.similarity(a, b), 0.0D, a + " / " + b);
+            for (final double threshold : THRESHOLDS) {
+                assertEquals(expected >= threshold, RatcliffObershelpKernel.isSimilar(a, b, threshold), a + " / " + b + " @ " + threshold);
+            }
+        }
+    }
+
+    @Test
+    void indexMatchesLibraryOnRandomLookups() {
+        final RatcliffObershelp library = new RatcliffObershelp();
+        final Random random = new Random(7L);
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            final List<String> words = new ArrayList<>();
+            final int size = 1 + random.nextInt(20);
+            for (int w = 0; w < size; w++) {
+                words.add("x" + randomString(random, "abcdef", 8));
+            }
+            final SimilarityIndex index = SimilarityIndex.compile(words);
+            final String token = randomString(random, "abcdefx", 10);
+            final double threshold = THRESHOLDS[random.nextInt(THRESHOLDS.length)];
+
+            boolean expected = false;
+            for (final String word : words) {
+                expected |= library.similarity(token, word) >= threshold;
+            }
+            assertEquals(expected, index.matches(token, threshold), token + " @ " + threshold + " in " + words);
+        }
+    }
+
+    @Test
+    void matchesLibraryOnWords() {
+        final RatcliffObershelp library = new RatcliffObershelp();
+        final String[][] pairs = {
+                {"hello", "hallo"},
+                {"banana", "bandana"},
+                {"idiot", "idi0t"},
+                {"stupid", "stoopid"},
+                {"abcabc", "cbacba"},
+                {"a", "aaaaaaaa"},
+                {"word", ""},
+        };
+
+        for (final String[] pair : pairs) {
+            assertEquals(library.similarity(pair[0], pair[1]), RatcliffObershelpKernel.similarity(pair[0], pair[1]), 0.0D, pair[0] + " / " + pair[1]);
+        }
+    }
+}
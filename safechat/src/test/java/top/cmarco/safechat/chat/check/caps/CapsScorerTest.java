@@ -0,0 +1,83 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.caps;
+
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+import top.cmarco.safechat.chat.state.OnlineNames;
+
+import java.lang.reflect.Proxy;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks which letters of a message are scored as shouting.
+ */
+final class CapsScorerTest {
+
+    private static final OnlineNames NO_NAMES = new OnlineNames();
+
+    private static void assertScore(int letters, int uppercase, String message, OnlineNames names) {
+        final long score = CapsScorer.score(message, names);
+        assertEquals(letters, CapsScorer.letters(score), "letters [" + message + "]");
+        assertEquals(uppercase, CapsScorer.uppercase(score), "uppercase [" + message + "]");
+    }
+
+    private static Player player(String name) {
+        return (Player) Proxy.newProxyInstance(CapsScorerTest.class.getClassLoader(), new Class<?>[]{Player.class}, (proxy, method, args) -> {
+            if (method.getName().equals("getName")) {
+                return name;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    @Test
+    void scoresUppercaseLetters() {
+        assertScore(10, 5, "HELLO world", NO_NAMES);
+        assertScore(5, 5, "§cHELLO &l!!", NO_NAMES);
+        assertScore(0, 0, "1234 ?!", NO_NAMES);
+    }
+
+    @Test
+    void skipsLinksAndDomains() {
+        assertScore(3, 3, "SEE HTTPS://SPIGOTMC.ORG", NO_NAMES);
+        assertScore(3, 3, "SEE WWW.SPIGOTMC.ORG", NO_NAMES);
+        assertScore(3, 3, "SEE SPIGOTMC.ORG/RESOURCES", NO_NAMES);
+        assertScore(3, 3, "SEE PLAY[.]EXAMPLE[.]NET", NO_NAMES);
+        // a dot alone does not make a domain.
+        assertScore(7, 7, "STOP. NOW", NO_NAMES);
+        assertScore(8, 8, "WAIT,WHAT", NO_NAMES);
+    }
+
+    @Test
+    void skipsOnlinePlayerNames() {
+        final OnlineNames names = new OnlineNames();
+        names.add(player("xXSteveXx"));
+        assertScore(2, 0, "hi XXSTEVEXX", names);
+        assertScore(11, 9, "hi XXSTEVEXX", NO_NAMES);
+    }
+
+    @Test
+    void lowercasesAllButNamesAndLinks() {
+        assertEquals("stop see SPIGOTMC.ORG/RESOURCES now", CapsScorer.lowercase("STOP SEE SPIGOTMC.ORG/RESOURCES NOW", NO_NAMES, Locale.ROOT));
+        assertEquals("t\u0131tle", CapsScorer.lowercase("TITLE", NO_NAMES, Locale.forLanguageTag("tr")));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.check.types;
+
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.Test;
+import top.cmarco.safechat.api.checks.ChatData;
+import top.cmarco.safechat.chat.check.address.AddressWhitelist;
+import top.cmarco.safechat.chat.check.blacklist.CompiledBlacklist;
+import top.cmarco.safechat.chat.state.PlayerStateStore;
+import top.cmarco.safechat.config.settings.AddressSettings;
+import top.cmarco.safechat.config.settings.BlacklistSettings;
+import top.cmarco.safechat.config.settings.CapsSettings;
+import top.cmarco.safechat.config.settings.CheckSettings;
+import top.cmarco.safechat.config.settings.FloodSettings;
+import top.cmarco.safechat.config.settings.LogSettings;
+import top.cmarco.safechat.config.settings.ParallelChecksSettings;
+import top.cmarco.safechat.config.settings.PluginSettings;
+import top.cmarco.safechat.config.settings.PunishmentSettings;
+import top.cmarco.safechat.config.settings.RepetitionSettings;
+import top.cmarco.safechat.config.settings.SafeChatSettings;
+import top.cmarco.safechat.config.settings.SettingsProvider;
+import top.cmarco.safechat.config.settings.StatisticsSettings;
+import top.cmarco.safechat.logging.OverflowPolicy;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a message is only remembered once it passed every comparison.
+ */
+final class RepetitionCheckTest {
+
+    private static final String MESSAGE = "join my server right now";
+    private static final long WINDOW = 30_000L;
+
+    private final Player first = player("First");
+    private final Player second = player("Second");
+    private final RepetitionCheck check = new RepetitionCheck(settingsProvider(), new PlayerStateStore());
+
+    private static Player player(String name) {
+        final UUID uuid = UUID.nameUUIDFromBytes(name.getBytes());
+        return (Player) Proxy.newProxyInstance(RepetitionCheckTest.class.getClassLoader(), new Class<?>[]{Player.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getUniqueId":
+                    return uuid;
+                case "getName":
+                    return name;
+                case "hashCode":
+                    return uuid.hashCode();
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static SettingsProvider settingsProvider() {
+        final CheckSettings check = new CheckSettings(true, false, false, 5L, "kick {PLAYER}", Collections.emptyList());
+        final SafeChatSettings settings = new SafeChatSettings(
+                new BlacklistSettings(check, false, true, false, 0.85D, false, Collections.emptyList(), CompiledBlacklist.empty()),
+                new AddressSettings(check, false, Collections.emptyList(), Collections.emptyList(), AddressWhitelist.empty()),
+                new FloodSettings(check, 0L, 0, 10_000L, 0, 1_000L),
+                // one other player may post a message before it is a duplicate.
+                new RepetitionSettings(check, true, 0.70D, 5, 300_000L, 12, 1, WINDOW, 10),
+                new CapsSettings(check, SafeChatSettings.DEFAULT_CAPS_LIMIT, 0.0D, 8, false),
+                new PluginSettings(PluginSettings.DEFAULT_STATE_IDLE_EXPIRATION,
+                        PluginSettings.DEFAULT_BYPASS_REFRESH_INTERVAL,
+                        new LogSettings(4096, OverflowPolicy.DROP, 0L, 0L, false),
+                        new ParallelChecksSettings(false, 0),
+                        new StatisticsSettings(false, 0L),
+                        new PunishmentSettings(2_000_000L)));
+        return new SettingsProvider(() -> settings);
+    }
+
+    private boolean fails(Player player, String message, long sentAt) {
+        return check.check(new ChatData(player, message, sentAt));
+    }
+
+    @Test
+    void doesNotRememberRefusedDuplicates() {
+        assertFalse(fails(first, MESSAGE, 0L));
+        assertTrue(fails(second, MESSAGE, 1_000L));
+
+        // the duplicate was refused, so it is not in the second player's history.
+        assertFalse(fails(second, MESSAGE, 1_000L + WINDOW + 1L));
+    }
+}
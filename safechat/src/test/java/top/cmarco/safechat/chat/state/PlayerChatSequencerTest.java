@@ -0,0 +1,91 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package top.cmarco.safechat.chat.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the messages of a player are never handled at the same time,
+ * and that no player is kept once their messages are handled.
+ */
+final class PlayerChatSequencerTest {
+
+    private static final int THREADS = 16;
+    private static final int PLAYERS = 4;
+    private static final int MESSAGES = 2_000;
+
+    @Test
+    void removesThePlayerAfterTheLastRelease() {
+        final PlayerChatSequencer sequencer = new PlayerChatSequencer();
+        final UUID uuid = UUID.randomUUID();
+        sequencer.acquire(uuid);
+        sequencer.acquire(uuid);
+        assertEquals(1, sequencer.size());
+        sequencer.release(uuid);
+        assertEquals(1, sequencer.size());
+        sequencer.release(uuid);
+        assertEquals(0, sequencer.size());
+    }
+
+    @Test
+    void excludesMessagesOfTheSamePlayer() throws InterruptedException {
+        final PlayerChatSequencer sequencer = new PlayerChatSequencer();
+        final UUID[] players = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+        }
+        final AtomicIntegerArray inside = new AtomicIntegerArray(PLAYERS);
+        final AtomicInteger overlaps = new AtomicInteger();
+        final AtomicInteger handled = new AtomicInteger();
+
+        final Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int player = t % PLAYERS;
+            threads[t] = new Thread(() -> {
+                for (int n = 0; n < MESSAGES; n++) {
+                    sequencer.acquire(players[player]);
+                    try {
+                        if (inside.incrementAndGet(player) != 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        Thread.yield();
+                        handled.incrementAndGet();
+                        inside.decrementAndGet(player);
+                    } finally {
+                        sequencer.release(players[player]);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, overlaps.get());
+        assertEquals(THREADS * MESSAGES, handled.get());
+        assertEquals(0, sequencer.size());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package top.cmarco.safechat.chat.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the limiter against a plain log of every accepted message.
+ */
+final class SlidingWindowLimiterTest {
+
+    private static final long ACCEPTED = SlidingWindowLimiter.ACCEPTED;
+
+    @Test
+    void enforcesTheMinimumDelay() {
+        final SlidingWindowLimiter limiter = new SlidingWindowLimiter();
+        assertEquals(ACCEPTED, limiter.tryAcquire(1_000L, 500L, 0, 0L));
+        assertEquals(200L, limiter.tryAcquire(1_300L, 500L, 0, 0L));
+        assertEquals(1_500L, limiter.getRetryAt());
+        assertEquals(ACCEPTED, limiter.tryAcquire(1_500L, 500L, 0, 0L));
+    }
+
+    @Test
+    void allowsBurstsUpToTheLimit() {
+        final SlidingWindowLimiter limiter = new SlidingWindowLimiter();
+        assertEquals(ACCEPTED, limiter.tryAcquire(0L, 0L, 3, 1_000L));
+        assertEquals(ACCEPTED, limiter.tryAcquire(100L, 0L, 3, 1_000L));
+        assertEquals(ACCEPTED, limiter.tryAcquire(200L, 0L, 3, 1_000L));
+        assertEquals(700L, limiter.tryAcquire(300L, 0L, 3, 1_000L));
+        assertEquals(1_000L, limiter.getRetryAt());
+
+        // the oldest message slides out of the window.
+        assertEquals(ACCEPTED, limiter.tryAcquire(1_000L, 0L, 3, 1_000L));
+        assertEquals(100L, limiter.tryAcquire(1_000L, 0L, 3, 1_000L));
+    }
+
+    @Test
+    void releasesTheLastAcceptedMessage() {
+        final SlidingWindowLimiter limiter = new SlidingWindowLimiter();
+        assertEquals(ACCEPTED, limiter.tryAcquire(0L, 0L, 2, 1_000L));
+        assertEquals(ACCEPTED, limiter.tryAcquire(10L, 0L, 2, 1_000L));
+        limiter.release(10L);
+        assertEquals(ACCEPTED, limiter.tryAcquire(20L, 0L, 2, 1_000L));
+        assertEquals(970L, limiter.tryAcquire(30L, 0L, 2, 1_000L));
+
+        // a different time does not release anything.
+        limiter.release(25L);
+        assertEquals(970L, limiter.tryAcquire(30L, 0L, 2, 1_000L));
+    }
+
+    @Test
+    void matchesALogOfAcceptedMessages() {
+        final Random random = new Random(1L);
+
+        // the settings of a run are fixed, as they are between two reloads.
+        for (int run = 0; run < 500; run++) {
+            final SlidingWindowLimiter limiter = new SlidingWindowLimiter();
+            final List<Long> accepted = new ArrayList<>();
+            final long minDelay = random.nextInt(4) == 0 ? 0L : random.nextInt(200);
+            final int limit = random.nextInt(6);
+            final long window = random.nextInt(5) == 0 ? 0L : random.nextInt(2_000);
+            long now = random.nextInt(1_000);
+
+            for (int n = 0; n < 200; n++) {
+                now += random.nextInt(300);
+
+                final long expected = expectedWait(accepted, now, minDelay, limit, window);
+                assertEquals(expected, limiter.tryAcquire(now, minDelay, limit, window), "run " + run + " message " + n);
+
+                if (expected == ACCEPTED) {
+                    accepted.add(now);
+                    if (random.nextInt(5) == 0) {
+                        limiter.release(now);
+                        accepted.remove(accepted.size() - 1);
+                    }
+                } else {
+                    assertEquals(now + expected, limiter.getRetryAt());
+                }
+            }
+        }
+    }
+
+    private static long expectedWait(List<Long> accepted, long now, long minDelay, int limit, long window) {
+        long wait = ACCEPTED;
+        if (!accepted.isEmpty() && minDelay > 0L) {
+            wait = Math.max(wait, accepted.get(accepted.size() - 1) + minDelay - now);
+        }
+        if (limit > 0 && window > 0L && accepted.size() >= limit) {
+            wait = Math.max(wait, accepted.get(accepted.size() - limit) + window - now);
+        }
+        return wait;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package top.cmarco.safechat.config.settings;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import studio.thevipershow.vtc.SectionType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Loads the settings from the shipped checks configuration.
+ */
+final class SafeChatSettingsTest {
+
+    // keys added after the first release, that older configurations do not have.
+    private static final List<String> OPTIONAL_FLOOD_KEYS = List.of("flood.burst-size", "flood.burst-window",
+            "flood.global-limit", "flood.global-window");
+
+    private static Map<String, Object> shippedChecks() throws IOException {
+        try (final InputStream stream = Objects.requireNonNull(SafeChatSettingsTest.class.getResourceAsStream("/checks-settings.toml"))) {
+            return parse(new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Read a TOML file made of tables and scalar keys, typed as TOML types them:
+     * integers are longs and floats are doubles. tomlj is not used, because the
+     * ANTLR runtime Hibernate puts on the test classpath cannot load its parser.
+     */
+    private static Map<String, Object> parse(String text) {
+        final Map<String, Object> values = new HashMap<>();
+        String table = "";
+        for (final String raw : text.split("\n")) {
+            final String line = stripComment(raw).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("[")) {
+                table = line.substring(1, line.length() - 1) + ".";
+                continue;
+            }
+            final int equals = line.indexOf('=');
+            values.put(table + line.substring(0, equals).trim(), value(line.substring(equals + 1).trim()));
+        }
+        return values;
+    }
+
+    private static String stripComment(String line) {
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '#') {
+                return line.substring(0, i);
+            }
+        }
+        return line;
+    }
+
+    private static Object value(String value) {
+        if (value.startsWith("'") || value.startsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        if (value.equals("true") || value.equals("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        if (value.matches("[+-]?[0-9_]+")) {
+            return Long.parseLong(value.replace("_", ""));
+        }
+        return Double.parseDouble(value);
+    }
+
+    private static <S extends SectionType> ConfigValues<S> values(Map<String, Object> values) {
+        return new ConfigValues<>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public <T> T getConfigValue(@NotNull S section) {
+                return (T) values.get(section.getStringData());
+            }
+        };
+    }
+
+    // the messages, words and addresses are left empty.
+    private static SafeChatSettings load(Map<String, Object> checks) {
+        return SafeChatSettings.load(values(checks), values(Map.of()), values(Map.of()), values(Map.of()),
+                Logger.getLogger(SafeChatSettingsTest.class.getName()));
+    }
+
+    private static long millis(Map<String, Object> checks, String key) {
+        return Math.round(((Number) Objects.requireNonNull(checks.get(key), key)).doubleValue() * 1000.0D);
+    }
+
+    private static int integer(Map<String, Object> checks, String key) {
+        return ((Number) Objects.requireNonNull(checks.get(key), key)).intValue();
+    }
+
+    @Test
+    void loadsTheShippedSettings() throws IOException {
+        final Map<String, Object> checks = shippedChecks();
+        final FloodSettings flood = load(checks).flood();
+
+        assertEquals(checks.get("flood.enable-check"), flood.check().enabled());
+        assertEquals(millis(checks, "flood.required-delay"), flood.requiredDelay());
+        assertEquals(integer(checks, "flood.burst-size"), flood.burstSize());
+        assertEquals(millis(checks, "flood.burst-window"), flood.burstWindow());
+        assertEquals(integer(checks, "flood.global-limit"), flood.globalLimit());
+        assertEquals(millis(checks, "flood.global-window"), flood.globalWindow());
+    }
+
+    @Test
+    void defaultsTheMissingFloodKeys() throws IOException {
+        final Map<String, Object> checks = shippedChecks();
+        for (final String key : OPTIONAL_FLOOD_KEYS) {
+            assertFalse(checks.remove(key) == null, key);
+        }
+
+        final FloodSettings flood = load(checks).flood();
+        assertEquals(SafeChatSettings.DEFAULT_FLOOD_BURST_SIZE, flood.burstSize());
+        assertEquals(Math.round(SafeChatSettings.DEFAULT_FLOOD_BURST_WINDOW * 1000.0D), flood.burstWindow());
+        assertEquals(SafeChatSettings.DEFAULT_FLOOD_GLOBAL_LIMIT, flood.globalLimit());
+        assertEquals(Math.round(SafeChatSettings.DEFAULT_FLOOD_GLOBAL_WINDOW * 1000.0D), flood.globalWindow());
+        assertEquals(millis(checks, "flood.required-delay"), flood.requiredDelay());
+    }
+}
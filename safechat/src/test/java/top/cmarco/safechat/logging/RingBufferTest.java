@@ -0,0 +1,136 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package top.cmarco.safechat.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the ordering and the bounds of the ring buffer, alone and with concurrent producers.
+ */
+final class RingBufferTest {
+
+    @Test
+    void roundsTheCapacityUpToAPowerOfTwo() {
+        assertEquals(2, new RingBuffer<String>(0).getCapacity());
+        assertEquals(2, new RingBuffer<String>(2).getCapacity());
+        assertEquals(4, new RingBuffer<String>(3).getCapacity());
+        assertEquals(1024, new RingBuffer<String>(1000).getCapacity());
+        assertEquals(1024, new RingBuffer<String>(1024).getCapacity());
+    }
+
+    @Test
+    void refusesElementsWhenFull() {
+        final RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        assertEquals(0, (int) buffer.poll());
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(5));
+    }
+
+    @Test
+    void keepsTheOrderAcrossWraps() {
+        final RingBuffer<Integer> buffer = new RingBuffer<>(8);
+        int next = 0;
+        int expected = 0;
+
+        for (int round = 0; round < 1_000; round++) {
+            final int offers = 1 + round % 8;
+            for (int i = 0; i < offers; i++) {
+                if (buffer.offer(next)) {
+                    next++;
+                }
+            }
+            final int polls = 1 + (round * 7) % 8;
+            for (int i = 0; i < polls; i++) {
+                final Integer element = buffer.poll();
+                if (element == null) {
+                    break;
+                }
+                assertEquals(expected++, (int) element);
+            }
+        }
+
+        Integer element;
+        while ((element = buffer.poll()) != null) {
+            assertEquals(expected++, (int) element);
+        }
+        assertEquals(next, expected);
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void deliversEveryElementOfConcurrentProducers() throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 20_000;
+        final RingBuffer<long[]> buffer = new RingBuffer<>(64);
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    final long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        // every producer's elements arrive in the order they were offered.
+        final long[] nextOf = new long[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            final long[] element = buffer.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            final int producer = (int) element[0];
+            assertEquals(nextOf[producer]++, element[1]);
+            received++;
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package top.cmarco.safechat.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the statement every dialect sends, and runs it on the embedded engines.
+ */
+final class UpsertSyntaxTest {
+
+    private static final UUID FIRST = new UUID(0L, 1L);
+    private static final UUID SECOND = new UUID(0L, 2L);
+
+    /**
+     * Records the SQL, the bound parameters and the calls of the statements a connection prepares.
+     */
+    private static Connection recordingConnection(List<String> calls) {
+        return (Connection) Proxy.newProxyInstance(UpsertSyntaxTest.class.getClassLoader(), new Class<?>[]{Connection.class}, (connection, method, args) -> {
+            if (!method.getName().equals("prepareStatement")) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            calls.add("prepare " + args[0]);
+            return Proxy.newProxyInstance(UpsertSyntaxTest.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (statement, call, parameters) -> {
+                switch (call.getName()) {
+                    case "setString":
+                    case "setInt":
+                        calls.add(parameters[0] + "=" + parameters[1]);
+                        return null;
+                    case "addBatch":
+                    case "close":
+                        calls.add(call.getName());
+                        return null;
+                    case "executeBatch":
+                        calls.add(call.getName());
+                        return new int[0];
+                    default:
+                        throw new UnsupportedOperationException(call.getName());
+                }
+            });
+        });
+    }
+
+    @Test
+    void bindsEveryRowInOneBatch() throws SQLException {
+        final Map<UUID, String> names = new LinkedHashMap<>();
+        names.put(FIRST, "Alice");
+        names.put(SECOND, "Bob");
+        final Map<FlagWriteBehindQueue.FlagKey, Integer> amounts = new LinkedHashMap<>();
+        amounts.put(new FlagWriteBehindQueue.FlagKey(FIRST, "Flood"), 3);
+
+        for (final UpsertSyntax syntax : UpsertSyntax.values()) {
+            final List<String> calls = new ArrayList<>();
+            final Connection connection = recordingConnection(calls);
+            syntax.upsertPlayers(connection, names);
+            syntax.incrementFlags(connection, amounts);
+
+            assertEquals(List.of(
+                    "prepare " + syntax.getPlayerUpsertSql(),
+                    "1=" + FIRST, "2=Alice", "addBatch",
+                    "1=" + SECOND, "2=Bob", "addBatch",
+                    "executeBatch", "close",
+                    "prepare " + syntax.getFlagUpsertSql(),
+                    "1=" + FIRST, "2=Flood", "3=3", "addBatch",
+                    "executeBatch", "close"), calls, syntax.name());
+        }
+    }
+
+    @Test
+    void sendsNothingForNoRows() throws SQLException {
+        final List<String> calls = new ArrayList<>();
+        final Connection connection = recordingConnection(calls);
+        for (final UpsertSyntax syntax : UpsertSyntax.values()) {
+            syntax.upsertPlayers(connection, Map.of());
+            syntax.incrementFlags(connection, Map.of());
+        }
+        assertTrue(calls.isEmpty());
+    }
+
+    @Test
+    void writesTheExpectedStatements() {
+        assertEquals("INSERT INTO player_data (uuid, name) VALUES (?, ?) ON CONFLICT (uuid) DO UPDATE SET name = EXCLUDED.name",
+                UpsertSyntax.ON_CONFLICT.getPlayerUpsertSql());
+        assertEquals("INSERT INTO flag_mapping (flag_id, flag_name, flags) VALUES (?, ?, ?) "
+                        + "ON CONFLICT (flag_id, flag_name) DO UPDATE SET flags = flag_mapping.flags + EXCLUDED.flags",
+                UpsertSyntax.ON_CONFLICT.getFlagUpsertSql());
+        assertEquals("INSERT INTO player_data (uuid, name) VALUES (?, ?) ON DUPLICATE KEY UPDATE name = VALUES(name)",
+                UpsertSyntax.ON_DUPLICATE_KEY.getPlayerUpsertSql());
+        assertEquals("INSERT INTO flag_mapping (flag_id, flag_name, flags) VALUES (?, ?, ?) "
+                        + "ON DUPLICATE KEY UPDATE flags = flags + VALUES(flags)",
+                UpsertSyntax.ON_DUPLICATE_KEY.getFlagUpsertSql());
+        assertTrue(UpsertSyntax.MERGE.getFlagUpsertSql().startsWith("MERGE INTO flag_mapping AS t USING"));
+        assertTrue(UpsertSyntax.MERGE_HOLDLOCK.getPlayerUpsertSql().startsWith("MERGE INTO player_data WITH (HOLDLOCK) AS t USING"));
+        assertTrue(UpsertSyntax.MERGE_HOLDLOCK.getFlagUpsertSql().endsWith(";"));
+    }
+
+    @Test
+    void mergesOnH2() throws SQLException {
+        try (final Connection connection = DriverManager.getConnection("jdbc:h2:mem:upsert_merge")) {
+            assertUpserts(connection, UpsertSyntax.MERGE);
+        }
+    }
+
+    @Test
+    void mergesOnHyperSQL() throws SQLException {
+        try (final Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:upsert_merge", "SA", "")) {
+            assertUpserts(connection, UpsertSyntax.MERGE);
+        }
+    }
+
+    @Test
+    void updatesOnDuplicateKeyOnH2() throws SQLException {
+        try (final Connection connection = DriverManager.getConnection("jdbc:h2:mem:upsert_duplicate;MODE=MySQL")) {
+            assertUpserts(connection, UpsertSyntax.ON_DUPLICATE_KEY);
+        }
+    }
+
+    /**
+     * Upsert the same rows twice: names are replaced and flags are added up.
+     */
+    private static void assertUpserts(Connection connection, UpsertSyntax syntax) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE player_data (uuid VARCHAR(255) PRIMARY KEY, name VARCHAR(255))");
+            statement.execute("CREATE TABLE flag_mapping (flag_id VARCHAR(255) NOT NULL, flag_name VARCHAR(255) NOT NULL, "
+                    + "flags INTEGER, PRIMARY KEY (flag_id, flag_name))");
+        }
+
+        syntax.upsertPlayers(connection, Map.of(FIRST, "Alice"));
+        syntax.upsertPlayers(connection, Map.of(FIRST, "Alicia", SECOND, "Bob"));
+        syntax.incrementFlags(connection, Map.of(new FlagWriteBehindQueue.FlagKey(FIRST, "Flood"), 2));
+        syntax.incrementFlags(connection, Map.of(
+                new FlagWriteBehindQueue.FlagKey(FIRST, "Flood"), 3,
+                new FlagWriteBehindQueue.FlagKey(SECOND, "Caps"), 1));
+
+        assertEquals(List.of(FIRST + " Alicia", SECOND + " Bob"),
+                query(connection, "SELECT uuid, name FROM player_data ORDER BY uuid"));
+        assertEquals(List.of(FIRST + " Flood 5", SECOND + " Caps 1"),
+                query(connection, "SELECT flag_id, flag_name, flags FROM flag_mapping ORDER BY flag_id"));
+    }
+
+    private static List<String> query(Connection connection, String sql) throws SQLException {
+        final List<String> rows = new ArrayList<>();
+        try (final Statement statement = connection.createStatement(); final ResultSet result = statement.executeQuery(sql)) {
+            final int columns = result.getMetaData().getColumnCount();
+            while (result.next()) {
+                final StringBuilder row = new StringBuilder(result.getString(1));
+                for (int i = 2; i <= columns; i++) {
+                    row.append(' ').append(result.getString(i));
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * {{ SafeChat }}
+ * Copyright (C) 2024 CMarco
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package top.cmarco.safechat.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the bucket boundaries and the precision of the percentiles.
+ */
+final class LatencyHistogramTest {
+
+    private static final int LAST_BUCKET = LatencyHistogram.index(Long.MAX_VALUE);
+
+    @Test
+    void roundTripsEveryBucketBoundary() {
+        assertEquals(0, LatencyHistogram.index(0L));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(LAST_BUCKET));
+
+        for (int i = 0; i <= LAST_BUCKET; i++) {
+            final long highest = LatencyHistogram.highestValue(i);
+            assertEquals(i, LatencyHistogram.index(highest), "highest of " + i);
+            if (i > 0) {
+                final long lowest = LatencyHistogram.highestValue(i - 1) + 1L;
+                assertEquals(i, LatencyHistogram.index(lowest), "lowest of " + i);
+                assertTrue(lowest <= highest);
+            }
+        }
+    }
+
+    @Test
+    void keepsExactValuesBelowSixteen() {
+        for (int value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.index(value));
+            assertEquals(value, LatencyHistogram.highestValue(value));
+        }
+        // from 16 on, every power of two starts a group of 16 buckets.
+        assertEquals(16, LatencyHistogram.index(16L));
+        assertEquals(31, LatencyHistogram.index(31L));
+        assertEquals(32, LatencyHistogram.index(32L));
+        assertEquals(32, LatencyHistogram.index(33L));
+        for (int power = 4; power < Long.SIZE - 1; power++) {
+            assertEquals((power - 3) * 16, LatencyHistogram.index(1L << power), "2^" + power);
+            assertEquals((power - 3) * 16 - 1, LatencyHistogram.index((1L << power) - 1L), "2^" + power + " - 1");
+        }
+    }
+
+    @Test
+    void percentilesStayWithinTheBucketPrecision() {
+        final Random random = new Random(1L);
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            // spread over many powers of two, from nanos to seconds.
+            values[i] = (long) Math.pow(2.0D, random.nextDouble() * 32.0D);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(values.length, snapshot.getCount());
+        assertEquals(values[values.length - 1], snapshot.getMax());
+
+        for (final double percentile : new double[]{1.0D, 25.0D, 50.0D, 90.0D, 99.0D, 99.9D, 100.0D}) {
+            final long exact = values[(int) Math.ceil(values.length * percentile / 100.0D) - 1];
+            final long reported = snapshot.percentile(percentile);
+            assertTrue(reported >= exact, percentile + ": " + reported + " < " + exact);
+            assertTrue(reported - exact <= exact / 16, percentile + ": " + reported + " vs " + exact);
+        }
+    }
+
+    @Test
+    void countsExactlyAtBucketBoundaries() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final long[] values = {0L, 3L, 15L, 16L, 17L, 100L, 1_000L, 1_000_000L, Long.MAX_VALUE};
+        for (final long value : values) {
+            histogram.record(value);
+        }
+        histogram.record(-5L);
+
+        final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0L, snapshot.percentile(0.0D));
+        assertEquals(Long.MAX_VALUE, snapshot.percentile(100.0D));
+        for (int i = 0; i <= LAST_BUCKET; i++) {
+            final long boundary = LatencyHistogram.highestValue(i);
+            long expected = 1L; // the negative value recorded as 0.
+            for (final long value : values) {
+                if (value <= boundary) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, snapshot.countAtOrBelow(boundary), "at " + boundary);
+        }
+        assertEquals(0L, new LatencyHistogram().snapshot().percentile(50.0D));
+    }
+}